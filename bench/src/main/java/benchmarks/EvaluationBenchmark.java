@@ -0,0 +1,34 @@
+package benchmarks;
+
+import controller.AIPlayer;
+import controller.Game;
+import java.util.concurrent.TimeUnit;
+import model.board.BitBoard;
+import org.openjdk.jmh.annotations.*;
+
+/** Avaliação estática de uma folha (AIPlayer.evaluateBoard). */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluationBenchmark {
+
+    @Param({"start", "kiwipete", "middlegame", "rookEndgame", "pawnEndgame"})
+    public String position;
+
+    private BitBoard pos;
+
+    @Setup
+    public void setup() {
+        Game game = new Game();
+        game.loadFen(BenchPositions.fen(position));
+        pos = game.position();
+    }
+
+    @Benchmark
+    public int evaluateBoard() {
+        return AIPlayer.evaluateBoard(pos);
+    }
+}
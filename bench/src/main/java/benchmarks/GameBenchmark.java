@@ -0,0 +1,78 @@
+package benchmarks;
+
+import controller.Game;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Operações do controller sobre o tabuleiro de objetos: legalidade, ataques e cópias. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameBenchmark {
+
+    @Param({"start", "kiwipete", "middlegame", "rookEndgame", "pawnEndgame"})
+    public String position;
+
+    private Game game;
+    private Position[] ownPieces;
+
+    @Setup
+    public void setup() {
+        game = new Game();
+        game.loadFen(BenchPositions.fen(position));
+        List<Piece> pieces = game.board().pieces(game.whiteToMove());
+        ownPieces = new Position[pieces.size()];
+        for (int i = 0; i < ownPieces.length; i++) ownPieces[i] = pieces.get(i).getPosition();
+    }
+
+    /**
+     * Lances legais de todas as peças do lado a jogar, com o cache do Game descartado antes (custa só
+     * uma atribuição): a geração dos lances entra no tempo, como na primeira consulta de uma posição.
+     */
+    @Benchmark
+    public int legalMovesFrom() {
+        game.invalidateLegalMoves();
+        int total = 0;
+        for (Position from : ownPieces) total += game.legalMovesFrom(from).size();
+        return total;
+    }
+
+    /** O mesmo com o cache já preenchido: só o filtro por peça (cliques seguintes na GUI). */
+    @Benchmark
+    public int legalMovesFromCached() {
+        int total = 0;
+        for (Position from : ownPieces) total += game.legalMovesFrom(from).size();
+        return total;
+    }
+
+    /** Ataques do adversário às 64 casas. */
+    @Benchmark
+    public int isSquareAttacked() {
+        int attacked = 0;
+        boolean side = game.whiteToMove();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (game.isSquareAttacked(new Position(r, c), side)) attacked++;
+            }
+        }
+        return attacked;
+    }
+
+    @Benchmark
+    public Board boardCopy() {
+        return game.board().copy();
+    }
+
+    @Benchmark
+    public void snapshot(Blackhole bh) {
+        bh.consume(game.snapshot());
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import controller.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+
+/** Piece.getPossibleMoves() para todas as peças de um tipo (das duas cores) numa posição fixa. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PieceMovesBenchmark {
+
+    @Param({"P", "N", "B", "R", "Q", "K"})
+    public String pieceType;
+
+    @Param({"kiwipete", "middlegame", "rookEndgame"})
+    public String position;
+
+    private final List<Piece> pieces = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Game game = new Game();
+        game.loadFen(BenchPositions.fen(position));
+        for (boolean white : new boolean[]{true, false}) {
+            for (Piece p : game.board().pieces(white)) {
+                if (p.getSymbol().equals(pieceType)) pieces.add(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public int possibleMoves() {
+        int total = 0;
+        for (Piece p : pieces) total += p.getPossibleMoves().size();
+        return total;
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import controller.AIPlayer;
+import controller.Game;
+import java.util.concurrent.TimeUnit;
+import model.board.Move;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Busca completa (AIPlayer.findBestMove) a profundidade fixa, numa thread.
+ * A tabela de transposição é limpa antes de cada chamada para que nenhuma busca aproveite a anterior.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({"kiwipete", "middlegame", "rookEndgame", "pawnEndgame"})
+    public String position;
+
+    @Param({"2", "3", "4"})
+    public int depth;
+
+    private AIPlayer ai;
+
+    @Setup
+    public void setup() {
+        Game game = new Game();
+        game.loadFen(BenchPositions.fen(position));
+        ai = new AIPlayer(game);
+        ai.setParallelism(1);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearHash() {
+        ai.clearHash();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ai.shutdown();
+    }
+
+    @Benchmark
+    public Move findBestMove() {
+        return ai.findBestMove(depth);
+    }
+}
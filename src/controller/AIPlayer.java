@@ -1,186 +1,566 @@
 package controller;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import model.board.*;
 import model.pieces.*;
 
 public class AIPlayer {
 
     private Game game;
-    private final Random random = new Random();
 
-    private static final double PAWN_VALUE = 100;
-    private static final double KNIGHT_VALUE = 320;
-    private static final double BISHOP_VALUE = 330;
-    private static final double ROOK_VALUE = 500;
-    private static final double QUEEN_VALUE = 900;
-    private static final double KING_VALUE = 100000;
+    // Valores em centipeões (a avaliação inteira usa as mesmas tabelas do PieceSquare)
+    private static final int PAWN_VALUE = PieceSquare.PAWN_VALUE;
+    private static final int KNIGHT_VALUE = PieceSquare.KNIGHT_VALUE;
+    private static final int BISHOP_VALUE = PieceSquare.BISHOP_VALUE;
+    private static final int ROOK_VALUE = PieceSquare.ROOK_VALUE;
+    private static final int QUEEN_VALUE = PieceSquare.QUEEN_VALUE;
+    private static final int KING_VALUE = 100000;
+
+    /** Valor por tipo na ordem de BitBoard (PAWN..KING). */
+    static final int[] TYPE_VALUE = {
+        PAWN_VALUE, KNIGHT_VALUE, BISHOP_VALUE, ROOK_VALUE, QUEEN_VALUE, KING_VALUE
+    };
+
+    static final int MATE_VALUE = KING_VALUE * 100;
+    /** Valores acima disto (em módulo) são mates e dependem da distância até a raiz. */
+    static final int MATE_BOUND = MATE_VALUE - 1000;
+    /** Maior que qualquer valor de busca: limite inicial da janela. */
+    static final int INFINITY = MATE_VALUE + 1000;
+
+    // Termos táticos da avaliação (centipeões)
+    /** Peças pretas atacando peças brancas: fração do valor da peça atacada (1/20 = 5%). */
+    private static final int THREAT_DIVISOR = 20;
+    /** Brancas em xeque (bom para a IA, que joga de Pretas). */
+    private static final int WHITE_IN_CHECK = 1000;
+    /** Pretas em xeque. */
+    private static final int BLACK_IN_CHECK = 300;
+
+    private static final int TT_ENTRIES = 1 << 20; // 16 MB (dois longs por entrada)
+    /** Criada na primeira busca: snapshots de Game também constroem um AIPlayer. */
+    private TranspositionTable table;
+
+    public static final int MAX_DEPTH = 64;
+    /** Meia-largura inicial da janela de aspiração (em pontos da avaliação). */
+    private static final int ASPIRATION_WINDOW = 50;
+
+    // Estado da busca corrente, compartilhado pelos workers
+    private final AtomicLong nodes = new AtomicLong();
+    private volatile long deadline;   // System.nanoTime() limite; 0 = sem limite de tempo
+    private volatile long nodeLimit;  // 0 = sem limite de nós
+    private volatile boolean stopped;
+    private volatile int rootDepth;
+    private volatile long searchStart;
+    /** Orçamento de tempo da busca corrente (ms), para o relógio que começa num ponder hit. */
+    private volatile long timeBudget;
+    /** Ponder: a busca roda na vez do adversário e ignora o relógio até ponderHit(). */
+    private volatile boolean pondering;
+    /** Conta os stop(): uma busca pedida antes de um stop() que ainda não tinha começado já nasce parada. */
+    private final AtomicInteger stopRequests = new AtomicInteger();
+    /** Telemetria da busca corrente, publicada em {@link SearchMetrics} quando ela termina. */
+    private final SearchMetrics.Counters stats = new SearchMetrics.Counters();
+    /** Duração (ms) de cada iteração completa da thread principal na busca corrente. */
+    private final List<Long> iterationMillis = new ArrayList<>();
+
+    /**
+     * Progresso da busca, publicado ao fim de cada iteração completa da thread principal.
+     * {@code score} é em centipeões, do ponto de vista do lado que está buscando; {@code bestMove} em UCI.
+     */
+    public record SearchInfo(int depth, int score, String bestMove, long nodes, long millis) { }
+
+    private volatile Consumer<SearchInfo> searchListener;
+
+    /** Consultado antes de cada busca; null = sem livro. */
+    private volatile OpeningBook openingBook;
+    private final Random bookRandom = new Random();
+
+    /** Como as threads dividem o trabalho quando parallelism > 1. */
+    public enum SearchMode {
+        /** Lances da raiz divididos entre tarefas de um ForkJoinPool. */
+        ROOT_SPLIT,
+        /** Threads auxiliares buscam a mesma posição em profundidades defasadas, só compartilhando a tabela. */
+        LAZY_SMP
+    }
+
+    /** Threads usadas pela busca; 1 = busca sequencial. */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private SearchMode searchMode = SearchMode.ROOT_SPLIT;
+    private ForkJoinPool pool;
+    private ExecutorService helpers;
+
+    /** Motor avulso, sem Game (front end UCI): só {@link #searchPosition} e afins. */
+    public AIPlayer() {
+        this(null);
+    }
 
     public AIPlayer(Game game) {
         this.game = game;
+        Bitbases.startGeneration();
     }
 
     public void setGame(Game game) {
         this.game = game;
     }
 
-    /** Encontra o melhor movimento usando Minimax com Alpha-Beta */
-    public Move findBestMove(int depth) {
-        double bestValue = Double.NEGATIVE_INFINITY;
-        Move bestMove = null;
-        List<Move> possibleMoves = generateAllLegalMoves(false); // IA = Pretas
-        Collections.shuffle(possibleMoves, random);
-
-        for (Move move : possibleMoves) {
-            Game childGame = game.snapshot();
-            Character promo = null;
-            if (move.getMoved() instanceof Pawn && childGame.isPromotion(move.getFrom(), move.getTo())) {
-                promo = 'Q';
-            }
-            childGame.applyMoveInternal(move.getFrom(), move.getTo(), promo, false);
-            double moveValue = minimax(childGame, depth - 1, true, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    /** Número de threads da busca (ver {@link SearchMode}). */
+    public void setParallelism(int threads) {
+        int p = Math.max(1, threads);
+        if (p == parallelism) return;
+        parallelism = p;
+        shutdownPools();
+    }
+
+    public int getParallelism() { return parallelism; }
 
-            if (moveValue > bestValue) {
-                bestValue = moveValue;
-                bestMove = move;
+    /** Recebe o progresso da busca; chamado na thread da busca (null desliga). */
+    public void setSearchListener(Consumer<SearchInfo> listener) { this.searchListener = listener; }
+
+    /** Livro de aberturas: posições dele são respondidas na hora, sem busca (null desliga). */
+    public void setOpeningBook(OpeningBook book) { this.openingBook = book; }
+
+    public void setSearchMode(SearchMode mode) { this.searchMode = mode; }
+    public SearchMode getSearchMode() { return searchMode; }
+
+    /** Esquece as posições guardadas na tabela de transposição (nova partida). */
+    public void clearHash() {
+        if (table != null) table.clear();
+    }
+
+    /** Pede que a busca em andamento pare; findBestMove devolve o resultado da última iteração completa. */
+    public void stop() {
+        stopRequests.incrementAndGet();
+        stopped = true;
+    }
+
+    /** Valor atual do contador de stop(), a ser passado para a busca pedida agora. */
+    public int stopRequests() { return stopRequests.get(); }
+
+    /**
+     * A próxima busca é um ponder: busca a posição depois do lance esperado do adversário sem
+     * respeitar o tempo, até {@link #ponderHit()} (ele jogou o lance) ou {@link #stopPondering()}.
+     */
+    public void startPondering() {
+        pondering = true;
+    }
+
+    /**
+     * O adversário jogou o lance esperado: o ponder vira a busca normal. O tempo já pensado conta
+     * no orçamento, então um ponder longo responde na hora.
+     */
+    public void ponderHit() {
+        long budget = timeBudget;
+        deadline = budget > 0 ? Math.max(searchStart + budget * 1_000_000L, System.nanoTime()) : 0;
+        pondering = false;
+    }
+
+    /** O adversário jogou outro lance: o ponder para já (a tabela de transposição é mantida). */
+    public void stopPondering() {
+        pondering = false;
+        stop();
+    }
+
+    /**
+     * Resposta esperada do adversário na posição dada: o lance guardado na tabela pela última busca,
+     * se for legal ali; 0 se não houver.
+     */
+    public int predictedReply(BitBoard pos) {
+        if (table == null) return 0;
+        int move = TranspositionTable.move(table.probe(pos.zobristKey()));
+        if (move == 0) return 0;
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int n = pos.generateLegalMoves(moves);
+        for (int i = 0; i < n; i++) {
+            if (moves[i] == move) return move;
+        }
+        return 0;
+    }
+
+    /** Para a busca e encerra as threads do motor, esperando que terminem. */
+    public void shutdown() {
+        stop();
+        shutdownPools();
+    }
+
+    private void shutdownPools() {
+        ExecutorService[] services = {pool, helpers};
+        pool = null;
+        helpers = null;
+        for (ExecutorService service : services) {
+            if (service == null) continue;
+            service.shutdown();
+            try {
+                service.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
-        return bestMove;
     }
 
-    /** Minimax com poda Alpha-Beta */
-    private double minimax(Game currentGame, int depth, boolean maximizingPlayer, double alpha, double beta) {
-        if (depth == 0 || currentGame.isGameOver()) {
-            return evaluateBoard(currentGame);
+    /** Encontra o melhor movimento buscando até a profundidade fixa {@code depth}. */
+    public Move findBestMove(int depth) {
+        return findBestMove(depth, 0, 0);
+    }
+
+    /**
+     * Aprofundamento iterativo: busca profundidade 1, 2, 3... até {@code maxDepth} ou até o orçamento
+     * acabar, e devolve o melhor lance da última iteração completa.
+     * A partir da profundidade 2 usa janela de aspiração em torno do valor anterior.
+     * Se a posição estiver no livro de aberturas, o lance sai dele sem busca.
+     *
+     * @param timeMillis tempo máximo em milissegundos (0 = sem limite)
+     * @param maxNodes   nós máximos (0 = sem limite)
+     */
+    public Move findBestMove(int maxDepth, long timeMillis, long maxNodes) {
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int n = game.legalMoveCodes(moves); // do cache do Game: a GUI e o fim de jogo já geraram
+        int move = searchPosition(game.position().copy(), moves, n, maxDepth, timeMillis, maxNodes,
+                stopRequests.get());
+        return move == 0 ? null : game.toMove(move);
+    }
+
+    /**
+     * Mesma busca de {@link #findBestMove(int, long, long)} sobre uma posição já copiada, sem tocar
+     * no Game: pode rodar em outra thread enquanto a interface lê o tabuleiro.
+     *
+     * @return o lance codificado (ver {@link BitBoard#move}), ou 0 se não houver lance legal
+     */
+    public int searchPosition(BitBoard root, int maxDepth, long timeMillis, long maxNodes) {
+        return searchPosition(root, maxDepth, timeMillis, maxNodes, stopRequests.get());
+    }
+
+    /**
+     * Busca pedida numa thread e executada em outra: {@code stops} é o {@link #stopRequests()} do
+     * momento do pedido, e a busca começa parada se houve um stop() desde então.
+     */
+    public int searchPosition(BitBoard root, int maxDepth, long timeMillis, long maxNodes, int stops) {
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int n = root.generateLegalMoves(moves);
+        return searchPosition(root, moves, n, maxDepth, timeMillis, maxNodes, stops);
+    }
+
+    /** Busca com os {@code n} lances legais da raiz já gerados em {@code moves} (reordenados aqui). */
+    private int searchPosition(BitBoard root, int[] moves, int n, int maxDepth, long timeMillis, long maxNodes,
+                               int stops) {
+        OpeningBook book = openingBook;
+        if (book != null) {
+            int bookMove = book.probe(root, bookRandom);
+            if (bookMove != 0) return bookMove;
         }
+        if (table == null) table = new TranspositionTable(TT_ENTRIES);
+        if (n == 0) return 0;
+        SearchWorker main = new SearchWorker(this, root);
 
-        List<Move> possibleMoves = generateAllLegalMoves(maximizingPlayer);
-        if (possibleMoves.isEmpty()) return evaluateBoard(currentGame);
+        // Raiz ordenada como os outros nós: lance da tabela (de uma busca anterior), depois capturas
+        int[] scores = new int[BitBoard.MAX_MOVES];
+        main.ordering.score(root, moves, scores, n, TranspositionTable.move(table.probe(root.zobristKey())), 0);
+        MoveOrdering.sortMoves(moves, scores, n);
 
-        if (maximizingPlayer) {
-            double maxEval = Double.NEGATIVE_INFINITY;
-            for (Move move : possibleMoves) {
-                Game child = currentGame.snapshot();
-                Character promo = null;
-                if (move.getMoved() instanceof Pawn && child.isPromotion(move.getFrom(), move.getTo())) {
-                    promo = 'Q';
+        SearchMetrics.SearchEvent event = new SearchMetrics.SearchEvent();
+        event.begin();
+        nodes.set(0);
+        stats.reset();
+        iterationMillis.clear();
+        searchStart = System.nanoTime();
+        stopped = false;
+        if (stops != stopRequests.get()) stopped = true;
+        timeBudget = timeMillis;
+        deadline = timeMillis > 0 ? System.nanoTime() + timeMillis * 1_000_000L : 0;
+        nodeLimit = maxNodes;
+        rootDepth = 1;
+        int depthLimit = Math.min(maxDepth, MAX_DEPTH);
+
+        Iteration result = parallelism > 1 && searchMode == SearchMode.LAZY_SMP
+                ? lazySmp(main, moves, n, depthLimit)
+                : iterate(main, moves, n, depthLimit, 1, parallelism > 1, true);
+        SearchMetrics.global().recordSearch(event, result.depth, result.value, result.move, nodes.get(), stats,
+                iterationMillis, (System.nanoTime() - searchStart) / 1_000_000, parallelism);
+        return result.move;
+    }
+
+    /** Resultado da última iteração completa de uma thread. */
+    private static final class Iteration {
+        int depth;
+        int move;
+        int value;
+    }
+
+    /**
+     * Laço de aprofundamento iterativo de uma thread, de {@code firstDepth} até {@code maxDepth}.
+     * Só a thread principal controla rootDepth (a primeira iteração dela sempre termina).
+     */
+    private Iteration iterate(SearchWorker worker, int[] moves, int n, int maxDepth, int firstDepth,
+                              boolean split, boolean isMain) {
+        Iteration done = new Iteration();
+        done.move = moves[0];
+        int lastValue = 0;
+        long iterationStart = System.nanoTime();
+        for (int depth = firstDepth; depth <= maxDepth; depth++) {
+            if (isMain) rootDepth = depth;
+            int delta = ASPIRATION_WINDOW;
+            int alpha = done.depth > 0 ? lastValue - delta : -INFINITY;
+            int beta = done.depth > 0 ? lastValue + delta : INFINITY;
+            int value;
+            while (true) {
+                value = searchRoot(worker, moves, n, depth, alpha, beta, split);
+                if (stopped) break;
+                // Falhou fora da janela: alarga só o lado que falhou e repete
+                if (value <= alpha) {
+                    alpha = lastValue - (delta *= 4);
+                } else if (value >= beta) {
+                    beta = lastValue + (delta *= 4);
+                } else {
+                    break;
+                }
+                if (delta > MATE_VALUE) {
+                    alpha = -INFINITY;
+                    beta = INFINITY;
                 }
-                child.applyMoveInternal(move.getFrom(), move.getTo(), promo, false);
-                double eval = minimax(child, depth - 1, false, alpha, beta);
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) break;
             }
-            return maxEval;
-        } else { // vez da IA (pretas = minimizing)
-            double minEval = Double.POSITIVE_INFINITY;
-            for (Move move : possibleMoves) {
-                Game child = currentGame.snapshot();
-                Character promo = null;
-                if (move.getMoved() instanceof Pawn && child.isPromotion(move.getFrom(), move.getTo())) {
-                    promo = 'Q';
+            if (stopped) break;
+
+            lastValue = value;
+            done.depth = depth;
+            done.move = moves[0];
+            done.value = value;
+            if (isMain) {
+                worker.flushNodes();
+                long now = System.nanoTime();
+                iterationMillis.add((now - iterationStart) / 1_000_000);
+                SearchMetrics.recordIteration(depth, value, nodes.get(), now - iterationStart);
+                iterationStart = now;
+                Consumer<SearchInfo> listener = searchListener;
+                if (listener != null) {
+                    listener.accept(new SearchInfo(depth, value, BitBoard.toUci(done.move), nodes.get(),
+                            (now - searchStart) / 1_000_000));
                 }
-                child.applyMoveInternal(move.getFrom(), move.getTo(), promo, false);
-                double eval = minimax(child, depth - 1, true, alpha, beta);
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) break;
             }
-            return minEval;
+            if (Math.abs(value) > MATE_BOUND) break; // mate encontrado: não adianta ir mais fundo
         }
+        worker.flushNodes();
+        return done;
     }
 
-    /** Avalia tabuleiro do ponto de vista das Brancas (+ = vantagem Brancas, - = vantagem Pretas) */
-    private double evaluateBoard(Game currentGame) {
-        if (currentGame.isGameOver()) {
-            if (currentGame.getWinner() != null) {
-                if (currentGame.getWinner().equals("Brancas")) return KING_VALUE * 100;
-                if (currentGame.getWinner().equals("Pretas")) return -KING_VALUE * 100;
-                return 0;
+    /**
+     * Lazy SMP: parallelism - 1 threads auxiliares rodam o próprio aprofundamento iterativo na mesma
+     * posição, com a raiz embaralhada de outro jeito e começando em profundidades alternadas, e só
+     * se comunicam pela tabela de transposição. Quando a thread principal termina, todas recebem o
+     * sinal de parada e são aguardadas; vence o resultado completo mais profundo (empate: principal).
+     */
+    private Iteration lazySmp(SearchWorker main, int[] moves, int n, int maxDepth) {
+        if (helpers == null) {
+            AtomicInteger ids = new AtomicInteger();
+            helpers = Executors.newFixedThreadPool(parallelism - 1, r -> {
+                Thread t = new Thread(r, "lazy-smp-" + ids.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        List<Future<Iteration>> running = new ArrayList<>(parallelism - 1);
+        for (int i = 1; i < parallelism; i++) {
+            int[] own = moves.clone();
+            Random order = new Random(i);
+            for (int k = n - 1; k > 1; k--) { // mantém moves[0] (lance da tabela) na frente
+                int j = 1 + order.nextInt(k);
+                int tmp = own[k];
+                own[k] = own[j];
+                own[j] = tmp;
             }
+            SearchWorker worker = new SearchWorker(this, main.pos.copy());
+            int firstDepth = 1 + (i & 1);
+            running.add(helpers.submit(() -> iterate(worker, own, n, maxDepth, firstDepth, false, false)));
         }
 
-        double score = 0;
-        Board board = currentGame.board();
+        Iteration best = iterate(main, moves, n, maxDepth, 1, false, true);
+        stopped = true;
+        for (Future<Iteration> f : running) {
+            try {
+                Iteration r = f.get();
+                if (r.depth > best.depth) best = r;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falha na busca Lazy SMP", e.getCause());
+            }
+        }
+        return best;
+    }
 
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position pos = new Position(r, c);
-                Piece piece = board.get(pos);
-                if (piece == null) continue;
+    /**
+     * Busca todos os lances da raiz na janela (alpha, beta) e deixa o melhor em moves[0],
+     * para abrir a próxima iteração. Valores do ponto de vista do lado a jogar na raiz.
+     * O primeiro lance é buscado antes, sozinho e com a janela inteira, para fixar um bom
+     * limite; os demais usam janela nula (PVS) e com mais de uma thread são divididos no
+     * ForkJoinPool, cada tarefa com sua cópia da posição e lendo o limite compartilhado ao começar.
+     */
+    private int searchRoot(SearchWorker main, int[] moves, int n, int depth, int alpha, int beta,
+                              boolean split) {
+        BitBoard root = main.pos;
+        int alphaOrig = alpha;
 
-                double pieceValue = getPieceValue(piece);
-                score += piece.isWhite() ? pieceValue : -pieceValue;
+        root.makeMove(moves[0]);
+        int first = -main.search(depth - 1, -beta, -alpha, 1, true);
+        root.unmakeMove();
+        if (stopped) return 0;
 
-                // Controle do centro (quadrados 2-5)
-                if (r >= 2 && r <= 5 && c >= 2 && c <= 5) {
-                    score += piece.isWhite() ? 0.2 * pieceValue / 100 : -0.2 * pieceValue / 100;
-                }
+        RootBest best = new RootBest(first, 0, Math.max(alpha, first));
+        if (split && n > 2 && depth > 1) {
+            List<Callable<Void>> tasks = new ArrayList<>(n - 1);
+            for (int i = 1; i < n; i++) {
+                final int index = i;
+                final BitBoard copy = root.copy();
+                tasks.add(() -> {
+                    SearchWorker worker = new SearchWorker(this, copy);
+                    searchRootMove(worker, moves[index], index, depth, beta, best);
+                    worker.flushNodes();
+                    return null;
+                });
+            }
+            runAll(tasks);
+        } else {
+            for (int i = 1; i < n && !stopped; i++) {
+                searchRootMove(main, moves[i], i, depth, beta, best);
+            }
+        }
+        if (stopped) return 0;
 
-                // Peões avançados
-                if (piece instanceof Pawn) {
-                    if (piece.isWhite()) score += (7 - r) * 2;
-                    else score -= r * 2;
-                }
+        int bestValue = best.value;
+        SearchWorker.moveToFront(moves, n, moves[best.index]);
+        int bound = bestValue <= alphaOrig ? TranspositionTable.UPPER
+                : bestValue >= beta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(root.zobristKey(), moves[0], depth, bound, bestValue);
+        return bestValue;
+    }
 
-                // Incentivo para peças pretas atacarem
-                if (!piece.isWhite()) {
-                    List<Position> moves = currentGame.legalMovesFrom(piece.getPosition());
-                    for (Position target : moves) {
-                        Piece targetPiece = board.get(target);
-                        if (targetPiece != null && targetPiece.isWhite()) {
-                            score -= getPieceValue(targetPiece) * 0.05; // valoriza ameaçar peças brancas
-                            if (targetPiece instanceof King) {
-                                score -= 500; // recompensa forte por atacar o rei branco
-                            }
-                        }
-                    }
-                }
+    /**
+     * Busca um lance da raiz com alpha = melhor valor já conhecido: primeiro com janela nula,
+     * e de novo com a janela (alpha, beta) só se o lance passar do melhor.
+     */
+    private void searchRootMove(SearchWorker worker, int move, int index, int depth, int beta, RootBest best) {
+        int a = best.bound;
+        if (a >= beta) return; // outro lance já provocou o corte
+        worker.pos.makeMove(move);
+        int value = -worker.search(depth - 1, -a - 1, -a, 1, true);
+        if (value > a && value < beta && !stopped) {
+            value = -worker.search(depth - 1, -beta, -a, 1, true);
+        }
+        worker.pos.unmakeMove();
+        if (stopped) return;
+        // Só um valor acima de alpha é exato (ou corte); um fail low é só limite superior do lance
+        if (value > a) best.offer(value, index);
+    }
+
+    private void runAll(List<Callable<Void>> tasks) {
+        if (pool == null) pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha na busca paralela", e.getCause());
+        }
+    }
+
+    /** Melhor lance da raiz e alpha compartilhados entre tarefas. */
+    private static final class RootBest {
+        volatile int value;
+        volatile int index;
+        volatile int bound;
+
+        RootBest(int value, int index, int bound) {
+            this.value = value;
+            this.index = index;
+            this.bound = bound;
+        }
+
+        /** Resultado exato (ou corte) do lance de índice {@code i}. */
+        synchronized void offer(int v, int i) {
+            // Empate: fica o lance de menor índice, como na busca sequencial
+            if (v > value || (v == value && i < index)) {
+                value = v;
+                index = i;
             }
+            bound = Math.max(bound, v);
         }
+    }
 
-        // Pontuação para xeque
-        if (currentGame.inCheck(true)) score -= 500;   // se brancas estão em xeque, bom p/ pretas
-        if (currentGame.inCheck(false)) score += 300;  // se pretas estão em xeque, ruim p/ IA
+    TranspositionTable table() { return table; }
 
-        return score;
+    boolean isStopped() { return stopped; }
+
+    /** Chamado pelos workers a cada lote de nós; verifica o orçamento. A primeira iteração sempre termina. */
+    void reportNodes(long count) {
+        long total = nodes.addAndGet(count);
+        if (rootDepth <= 1) return;
+        if ((nodeLimit > 0 && total >= nodeLimit) || (deadline != 0 && !pondering && System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
     }
 
-    private double getPieceValue(Piece piece) {
-        if (piece instanceof Pawn) return PAWN_VALUE;
-        if (piece instanceof Knight) return KNIGHT_VALUE;
-        if (piece instanceof Bishop) return BISHOP_VALUE;
-        if (piece instanceof Rook) return ROOK_VALUE;
-        if (piece instanceof Queen) return QUEEN_VALUE;
-        if (piece instanceof King) return KING_VALUE;
-        return 0;
+    /** Chamado pelos workers junto com o último lote de nós: contadores de telemetria. */
+    void reportStats(long qNodes, long betaCutoffs, long firstMoveCutoffs, long ttProbes, long ttHits) {
+        stats.add(qNodes, betaCutoffs, firstMoveCutoffs, ttProbes, ttHits);
+    }
+
+    /** Nós visitados na última busca. */
+    public long getNodes() { return nodes.get(); }
+
+    /**
+     * Avalia tabuleiro do ponto de vista das Brancas, em centipeões (+ = vantagem Brancas, - = vantagem Pretas).
+     * Material e posição vêm prontos do BitBoard (atualizados a cada lance); os termos táticos usam
+     * o mapa de ataques das Pretas.
+     */
+    public static int evaluateBoard(BitBoard pos) {
+        // Rei e peça contra rei: resultado exato das bitbases
+        if (Long.bitCount(pos.occupied()) <= 3) {
+            int known = Bitbases.evaluate(pos);
+            if (known != Bitbases.NO_ENTRY) return known;
+        }
+
+        int score = pos.pieceSquareScore();
+
+        // Incentivo para peças pretas atacarem peças brancas
+        long blackAttacks = pos.attacksBy(BitBoard.BLACK);
+        long whiteKing = pos.pieces(BitBoard.KING, BitBoard.WHITE);
+        for (long t = blackAttacks & pos.occupancy(BitBoard.WHITE) & ~whiteKing; t != 0; t &= t - 1) {
+            score -= TYPE_VALUE[pos.pieceAt(Long.numberOfTrailingZeros(t)) % 6] / THREAT_DIVISOR;
+        }
+
+        // Pontuação para xeque
+        if ((blackAttacks & whiteKing) != 0) score -= WHITE_IN_CHECK; // se brancas estão em xeque, bom p/ pretas
+        if (pos.inCheck(BitBoard.BLACK)) score += BLACK_IN_CHECK;    // se pretas estão em xeque, ruim p/ IA
+
+        return score;
     }
 
     /** Gera movimentos legais (IA ou Brancas) */
     public List<Move> generateAllLegalMoves(boolean forWhite) {
         List<Move> legalMoves = new ArrayList<>();
-        List<Piece> pieces = game.board().pieces(forWhite);
-
-        for (Piece p : pieces) {
-            Position from = p.getPosition();
-            List<Position> destinations = game.legalMovesFrom(from);
-            for (Position to : destinations) {
-                Character promo = null;
-                if (p instanceof Pawn && game.isPromotion(from, to)) promo = 'Q';
-                legalMoves.add(new Move(from, to, p, game.board().get(to), false, false, false, promo));
-            }
-        }
+        BitBoard pos = game.position();
+        if (pos.whiteToMove() != forWhite) return legalMoves;
 
-        // Priorizar capturas (peças de maior valor primeiro)
-        legalMoves.sort((m1, m2) -> {
-            double v1 = m1.getCaptured() != null ? getPieceValue(m1.getCaptured()) : 0;
-            double v2 = m2.getCaptured() != null ? getPieceValue(m2.getCaptured()) : 0;
-            return Double.compare(v2, v1);
-        });
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int[] scores = new int[BitBoard.MAX_MOVES];
+        int n = game.legalMoveCodes(moves); // do cache do Game: a GUI e o fim de jogo já geraram
 
+        // Priorizar capturas (peças de maior valor primeiro), ordenando os ints antes de criar os Move
+        for (int i = 0; i < n; i++) scores[i] = MoveOrdering.mvvLva(pos, moves[i]);
+        MoveOrdering.sortMoves(moves, scores, n);
+        for (int i = 0; i < n; i++) {
+            legalMoves.add(game.toMove(moves[i]));
+        }
         return legalMoves;
     }
 }
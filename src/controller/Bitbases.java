@@ -0,0 +1,210 @@
+package controller;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import model.board.Attacks;
+import model.board.BitBoard;
+
+/**
+ * Finais de rei e uma peça contra rei (KPK, KRK, KQK) resolvidos por análise retrógrada:
+ * um bit por posição diz se o lado forte ganha. O lado fraco nunca ganha, então o bit é o
+ * resultado exato (vitória/empate, ou derrota do ponto de vista do lado fraco).
+ *
+ * As tabelas são geradas numa thread de fundo quando o motor sobe ({@link #startGeneration()},
+ * chamado pelo AIPlayer; leva cerca de um segundo, em paralelo em todos os núcleos) e ocupam 64 KB
+ * cada. Até ficarem prontas as consultas devolvem {@link #NO_ENTRY} em vez de esperar, para não
+ * estourar o tempo da busca. KNK, KBK e KK são empates sem tabela.
+ *
+ * Índice: lado a jogar (0 = forte, 1 = fraco), rei forte, rei fraco e peça, com o lado forte
+ * sempre "Brancas" (se for das Pretas, o tabuleiro é espelhado na vertical).
+ */
+final class Bitbases {
+
+    /** Resultado fora das tabelas: a posição não tem só rei e peça contra rei. */
+    static final int NO_ENTRY = Integer.MIN_VALUE;
+    /** Base do valor de um final ganho (abaixo dos mates, acima de qualquer avaliação normal). */
+    static final int KNOWN_WIN = 10_000;
+
+    private static final int SIZE = 2 * 64 * 64 * 64;
+    private static final byte UNKNOWN = 0, WIN = 1, ILLEGAL = 2;
+
+    private static volatile long[][] tables; // [PAWN, ROOK, QUEEN] -> bits de vitória
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final CountDownLatch ready = new CountDownLatch(1);
+
+    private Bitbases() { /* utilitário */ }
+
+    /**
+     * Valor exato da posição do ponto de vista das Brancas: 0 se empate, ±(KNOWN_WIN + progresso)
+     * se um lado ganha, ou {@link #NO_ENTRY} se o material não é coberto.
+     * O progresso (rei fraco na borda, reis próximos, peão avançado) guia a busca até o mate.
+     */
+    static int evaluate(BitBoard pos) {
+        long all = pos.occupied();
+        int count = Long.bitCount(all);
+        if (count == 2) return 0;
+        if (count != 3) return NO_ENTRY;
+
+        int sq = Long.numberOfTrailingZeros(all & ~pos.pieces(BitBoard.KING, BitBoard.WHITE)
+                & ~pos.pieces(BitBoard.KING, BitBoard.BLACK));
+        int piece = pos.pieceAt(sq);
+        int type = piece % 6;
+        if (type == BitBoard.KNIGHT || type == BitBoard.BISHOP) return 0; // material insuficiente
+        long[][] t = tables;
+        if (t == null) {
+            startGeneration();
+            return NO_ENTRY;
+        }
+
+        int strong = piece < 6 ? BitBoard.WHITE : BitBoard.BLACK;
+        int flip = strong == BitBoard.WHITE ? 0 : 56;
+        int wk = Long.numberOfTrailingZeros(pos.pieces(BitBoard.KING, strong)) ^ flip;
+        int bk = Long.numberOfTrailingZeros(pos.pieces(BitBoard.KING, strong ^ 1)) ^ flip;
+        int p = sq ^ flip;
+        int stm = pos.sideToMove() == strong ? 0 : 1;
+        if (!isWin(t, type, index(stm, wk, bk, p))) return 0;
+
+        int score = KNOWN_WIN + AIPlayer.TYPE_VALUE[type];
+        if (type == BitBoard.PAWN) {
+            score += 20 * (6 - (p >> 3)); // linhas já andadas (o peão forte sobe para a linha 0)
+        } else {
+            score += 20 * centerDistance(bk) + 10 * (7 - distance(wk, bk));
+        }
+        return strong == BitBoard.WHITE ? score : -score;
+    }
+
+    /** Empate exato pelas tabelas (ou por material insuficiente); barato quando há mais de 3 peças. */
+    static boolean isDraw(BitBoard pos) {
+        return Long.bitCount(pos.occupied()) <= 3 && evaluate(pos) == 0;
+    }
+
+    /** Começa a gerar as tabelas numa thread de fundo; as chamadas seguintes não fazem nada. */
+    static void startGeneration() {
+        if (!started.compareAndSet(false, true)) return;
+        Thread generator = new Thread(() -> {
+            try {
+                // KPK consulta KQK e KRK nas promoções
+                byte[] queen = solve(BitBoard.QUEEN, null, null);
+                byte[] rook = solve(BitBoard.ROOK, null, null);
+                byte[] pawn = solve(BitBoard.PAWN, queen, rook);
+                tables = new long[][]{pack(pawn), pack(rook), pack(queen)};
+            } finally {
+                ready.countDown();
+            }
+        }, "bitbases");
+        generator.setDaemon(true);
+        generator.start();
+    }
+
+    /** Espera as tabelas ficarem prontas (começando a geração, se preciso). */
+    static void awaitTables() throws InterruptedException {
+        startGeneration();
+        ready.await();
+    }
+
+    private static boolean isWin(long[][] t, int type, int index) {
+        long[] bits = t[type == BitBoard.PAWN ? 0 : type == BitBoard.ROOK ? 1 : 2];
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    private static int index(int stm, int wk, int bk, int p) {
+        return stm << 18 | wk << 12 | bk << 6 | p;
+    }
+
+    private static int distance(int a, int b) {
+        return Math.max(Math.abs((a >> 3) - (b >> 3)), Math.abs((a & 7) - (b & 7)));
+    }
+
+    /** 0 nas quatro casas centrais, 3 na borda. */
+    private static int centerDistance(int sq) {
+        return (Math.max(Math.abs(2 * (sq >> 3) - 7), Math.abs(2 * (sq & 7) - 7)) - 1) / 2;
+    }
+
+    private static long[] pack(byte[] state) {
+        long[] bits = new long[SIZE / 64];
+        for (int i = 0; i < SIZE; i++) {
+            if (state[i] == WIN) bits[i >>> 6] |= 1L << i;
+        }
+        return bits;
+    }
+
+    /**
+     * Iteração até o ponto fixo: uma posição do lado forte é vitória se algum lance leva a vitória;
+     * uma do lado fraco, se é mate ou se todos os lances levam a vitória. Cada passada percorre as
+     * posições em paralelo; como os estados só mudam de UNKNOWN para WIN, ler um vizinho já
+     * atualizado na mesma passada só adianta a convergência.
+     */
+    private static byte[] solve(int type, byte[] queen, byte[] rook) {
+        byte[] state = new byte[SIZE];
+        IntStream.range(0, SIZE).parallel().forEach(i -> {
+            if (!isLegal(type, i)) state[i] = ILLEGAL;
+        });
+        while (IntStream.range(0, SIZE).parallel()
+                .filter(i -> state[i] == UNKNOWN && isWon(type, state, queen, rook, i))
+                .map(i -> {
+                    state[i] = WIN;
+                    return 1;
+                })
+                .sum() > 0) {
+            // repete até nenhuma posição mudar
+        }
+        return state;
+    }
+
+    private static long attacks(int type, int p, long occupied) {
+        return switch (type) {
+            case BitBoard.PAWN -> Attacks.PAWN[BitBoard.WHITE][p];
+            case BitBoard.ROOK -> Attacks.rook(p, occupied);
+            default -> Attacks.queen(p, occupied);
+        };
+    }
+
+    private static boolean isLegal(int type, int i) {
+        int stm = i >>> 18, wk = i >>> 12 & 63, bk = i >>> 6 & 63, p = i & 63;
+        if (wk == bk || wk == p || bk == p) return false;
+        if ((Attacks.KING[wk] & 1L << bk) != 0) return false;
+        if (type == BitBoard.PAWN && (p < 8 || p >= 56)) return false;
+        // Com o lado forte a jogar, o rei fraco não pode estar em xeque
+        long occupied = 1L << wk | 1L << bk | 1L << p;
+        return stm == 1 || (attacks(type, p, occupied) & 1L << bk) == 0;
+    }
+
+    private static boolean isWon(int type, byte[] state, byte[] queen, byte[] rook, int i) {
+        int stm = i >>> 18, wk = i >>> 12 & 63, bk = i >>> 6 & 63, p = i & 63;
+        long occupied = 1L << wk | 1L << bk | 1L << p;
+
+        if (stm == 0) {
+            // Lances do rei forte: não encosta no rei fraco nem pisa na própria peça
+            for (long t = Attacks.KING[wk] & ~Attacks.KING[bk] & ~(1L << p); t != 0; t &= t - 1) {
+                if (state[index(1, Long.numberOfTrailingZeros(t), bk, p)] == WIN) return true;
+            }
+            if (type == BitBoard.PAWN) {
+                int to = p - 8;
+                if ((occupied & 1L << to) != 0) return false;
+                if (to < 8) {
+                    // Promoção: dama, ou torre quando a dama afogaria
+                    return queen[index(1, wk, bk, to)] == WIN || rook[index(1, wk, bk, to)] == WIN;
+                }
+                if (state[index(1, wk, bk, to)] == WIN) return true;
+                return p >= 48 && (occupied & 1L << (p - 16)) == 0 && state[index(1, wk, bk, p - 16)] == WIN;
+            }
+            for (long t = attacks(type, p, occupied) & ~occupied; t != 0; t &= t - 1) {
+                if (state[index(1, wk, bk, Long.numberOfTrailingZeros(t))] == WIN) return true;
+            }
+            return false;
+        }
+
+        // Lado fraco: só o rei. Casas atacadas contam com o raio passando pelo próprio rei fraco
+        long attacked = Attacks.KING[wk] | attacks(type, p, occupied & ~(1L << bk));
+        boolean inCheck = (attacks(type, p, occupied) & 1L << bk) != 0;
+        boolean hasMove = false;
+        for (long t = Attacks.KING[bk] & ~attacked & ~(1L << wk); t != 0; t &= t - 1) {
+            int to = Long.numberOfTrailingZeros(t);
+            if (to == p) return false; // captura a peça indefesa: empate
+            if (state[index(0, wk, to, p)] != WIN) return false;
+            hasMove = true;
+        }
+        return hasMove || inCheck; // sem lances: mate (vitória) ou afogamento (empate)
+    }
+}
@@ -1,9 +1,18 @@
 package controller;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import model.board.BitBoard;
 import model.board.Board;
 import model.board.Move;
 import model.board.Position;
@@ -12,6 +21,8 @@ import model.pieces.*;
 public class Game {
 
     private Board board;
+    /** Espelho em bitboards do tabuleiro, mantido lance a lance; é onde a IA busca. */
+    private BitBoard position;
     private boolean whiteToMove = true;
     private boolean gameOver = false;
     private String winner = null;
@@ -19,19 +30,54 @@ public class Game {
     private boolean allowIllegalMoves = false;
     private Position enPassantTarget = null;
     private final List<String> history = new ArrayList<>();
+    private final ArrayDeque<Undo> undoStack = new ArrayDeque<>();
 
     private final Random rng = new Random();
 
+    /** Situação do lado a jogar, calculada junto com os lances legais. */
+    public enum Status {
+        NORMAL, CHECK, CHECKMATE, STALEMATE;
+
+        public boolean inCheck() { return this == CHECK || this == CHECKMATE; }
+    }
+
+    // Cache dos lances legais da posição atual: gerados uma vez por posição (chave Zobrist) e servidos
+    // à GUI (legalMovesFrom a cada clique), ao fim de jogo e à IA. Lances reais e novas posições invalidam.
+    private final int[] legalCache = new int[BitBoard.MAX_MOVES];
+    private int legalCount;
+    private long legalKey;
+    private boolean legalValid = false;
+    private Status status;
+
     private final AIPlayer aiPlayer;
     private int aiDifficulty = 3;
+    /** Tempo máximo por lance da IA em ms (0 = só o limite de profundidade da dificuldade). */
+    private long aiTimeMillis = 0;
+    /** Se false, move() não chama a IA: quem usa o Game pede o lance com requestAIMove(). */
+    private boolean autoAIMove = true;
+    /** Thread de fundo das buscas assíncronas (criada no primeiro pedido). */
+    private ExecutorService aiExecutor;
+    /** Muda a cada nova partida/posição: resultados de buscas antigas são descartados. */
+    private volatile int generation = 0;
+    /** Pensar no tempo do adversário (só nas buscas assíncronas de requestAIMove). */
+    private boolean aiPondering = false;
+    /** Busca do ponder em andamento e o hash da posição que ela espera (depois do lance previsto). */
+    private CompletableFuture<Integer> ponderSearch;
+    private long ponderKey;
+    /** Ponder que acertou o lance: requestAIMove usa esta busca em vez de começar outra. */
+    private CompletableFuture<Integer> ponderHitSearch;
 
     public Game() {
         this.board = new Board();
         setupPieces();
+        this.position = BitBoard.fromBoard(board, true, null);
         this.aiPlayer = new AIPlayer(this);
     }
 
     public Board board() { return board; }
+    public BitBoard position() { return position; }
+    /** Hash Zobrist da posição atual (peças, roques, en passant e lado a jogar). */
+    public long zobristKey() { return position.zobristKey(); }
     public boolean whiteToMove() { return whiteToMove; }
     public List<String> history() { return Collections.unmodifiableList(history); }
     public boolean isGameOver() { return gameOver; }
@@ -41,81 +87,137 @@ public class Game {
     public void setAIDifficulty(int difficulty) {
         this.aiDifficulty = difficulty;
     }
+    public void setAITimeBudget(long millis) {
+        this.aiTimeMillis = millis;
+    }
+    /** Threads usadas pela busca da IA (1 = sequencial). */
+    public void setAIThreads(int threads) {
+        aiPlayer.setParallelism(threads);
+    }
+    public void setAISearchMode(AIPlayer.SearchMode mode) {
+        aiPlayer.setSearchMode(mode);
+    }
+    public void setAutoAIMove(boolean auto) {
+        this.autoAIMove = auto;
+    }
+    /** Mapeia o livro de aberturas (ver {@link OpeningBook}); a IA passa a consultá-lo antes de buscar. */
+    public void loadOpeningBook(Path file) throws IOException {
+        aiPlayer.setOpeningBook(OpeningBook.open(file));
+    }
+    /** Liga o ponder: depois de cada lance de requestAIMove a IA já busca a resposta esperada. */
+    public void setAIPondering(boolean pondering) {
+        this.aiPondering = pondering;
+        if (!pondering) cancelPonder();
+    }
+    /** Recebe o progresso das buscas da IA (chamado na thread da busca). */
+    public void setAISearchListener(Consumer<AIPlayer.SearchInfo> listener) {
+        aiPlayer.setSearchListener(listener);
+    }
 
-    /** Retorna movimentos pseudo-legais (sem checar xeque), ou todos se allowIllegalMoves=true. */
+    /**
+     * Destinos legais da peça em {@code from} (roque e en passant incluídos; promoções aparecem uma vez),
+     * ou os pseudo-legais da peça se allowIllegalMoves=true.
+     */
     public List<Position> legalMovesFrom(Position from) {
         Piece p = board.get(from);
         if (p == null) return List.of();
         if (p.isWhite() != whiteToMove) return List.of();
+        if (allowIllegalMoves) return pseudoMovesFrom(p, from);
 
-        List<Position> pseudoMoves = new ArrayList<>(p.getPossibleMoves());
-
-        if (p instanceof Pawn) {
-            int dir = p.isWhite() ? -1 : 1;
-            int row = from.getRow();
-            int col = from.getColumn();
-
-            Position epLeft = new Position(row, col - 1);
-            if (epLeft.isValid()) {
-                Piece adj = board.get(epLeft);
-                if (adj instanceof Pawn && adj.isWhite() != p.isWhite() && epLeft.equals(enPassantTarget)) {
-                    Position epCapture = new Position(row + dir, col - 1);
-                    if (epCapture.isValid()) {
-                        pseudoMoves.add(epCapture);
-                    }
-                }
-            }
-            Position epRight = new Position(row, col + 1);
-            if (epRight.isValid()) {
-                Piece adj = board.get(epRight);
-                if (adj instanceof Pawn && adj.isWhite() != p.isWhite() && epRight.equals(enPassantTarget)) {
-                    Position epCapture = new Position(row + dir, col + 1);
-                    if (epCapture.isValid()) {
-                        pseudoMoves.add(epCapture);
-                    }
-                }
+        ensureLegalMoves();
+        int sq = BitBoard.square(from);
+        List<Position> legalMoves = new ArrayList<>();
+        for (int i = 0; i < legalCount; i++) {
+            int m = legalCache[i];
+            int promo = BitBoard.promotion(m);
+            if (BitBoard.from(m) == sq && (promo == 0 || promo == BitBoard.QUEEN)) {
+                legalMoves.add(BitBoard.position(BitBoard.to(m)));
             }
         }
+        return legalMoves;
+    }
 
-        if (allowIllegalMoves) {
-            return pseudoMoves;
-        }
+    /** Todos os lances legais do lado a jogar, com as flags de roque, en passant e promoção. */
+    public List<Move> legalMoves() {
+        ensureLegalMoves();
+        List<Move> out = new ArrayList<>(legalCount);
+        for (int i = 0; i < legalCount; i++) out.add(toMove(legalCache[i]));
+        return out;
+    }
 
-        List<Position> legalMoves = new ArrayList<>();
-        for (Position to : pseudoMoves) {
-            Game testGame = snapshot();
-            testGame.applyMoveInternal(from, to, null, false);
-            if (!testGame.inCheck(p.isWhite())) {
-                legalMoves.add(to);
-            }
-        }
+    /** Copia os lances legais codificados (ver {@link BitBoard#move}) para {@code out}; devolve quantos são. */
+    public int legalMoveCodes(int[] out) {
+        ensureLegalMoves();
+        System.arraycopy(legalCache, 0, out, 0, legalCount);
+        return legalCount;
+    }
 
-        if (p instanceof King && !p.hasMoved()) {
-            Position kingSideRookPos = new Position(from.getRow(), 7);
-            Piece kingSideRook = board.get(kingSideRookPos);
-            if (kingSideRook instanceof Rook && !kingSideRook.hasMoved() &&
-                board.get(new Position(from.getRow(), 5)) == null &&
-                board.get(new Position(from.getRow(), 6)) == null &&
-                !inCheck(p.isWhite()) &&
-                !isSquareAttacked(new Position(from.getRow(), 5), p.isWhite()) &&
-                !isSquareAttacked(new Position(from.getRow(), 6), p.isWhite())) {
-                legalMoves.add(new Position(from.getRow(), 6));
-            }
+    /** Xeque, mate ou afogamento do lado a jogar (pelas regras, mesmo com allowIllegalMoves). */
+    public Status status() {
+        ensureLegalMoves();
+        return status;
+    }
+
+    /** Descarta o cache de lances legais: a próxima consulta gera de novo (benchmark do caminho sem cache). */
+    public void invalidateLegalMoves() {
+        legalValid = false;
+    }
+
+    /** Gera os lances legais e a situação do lado a jogar, se a posição mudou desde a última vez. */
+    private void ensureLegalMoves() {
+        long key = position.zobristKey();
+        if (legalValid && key == legalKey) return;
+        legalCount = position.generateLegalMoves(legalCache);
+        boolean check = position.inCheck(position.sideToMove());
+        status = legalCount > 0
+                ? (check ? Status.CHECK : Status.NORMAL)
+                : (check ? Status.CHECKMATE : Status.STALEMATE);
+        legalKey = key;
+        legalValid = true;
+    }
 
-            Position queenSideRookPos = new Position(from.getRow(), 0);
-            Piece queenSideRook = board.get(queenSideRookPos);
-            if (queenSideRook instanceof Rook && !queenSideRook.hasMoved() &&
-                board.get(new Position(from.getRow(), 1)) == null &&
-                board.get(new Position(from.getRow(), 2)) == null &&
-                board.get(new Position(from.getRow(), 3)) == null &&
-                !inCheck(p.isWhite()) &&
-                !isSquareAttacked(new Position(from.getRow(), 2), p.isWhite()) &&
-                !isSquareAttacked(new Position(from.getRow(), 3), p.isWhite())) {
-                legalMoves.add(new Position(from.getRow(), 2));
+    /** Converte um lance codificado da posição atual em {@link Move}, com as peças do tabuleiro de objetos. */
+    public Move toMove(int move) {
+        Position from = BitBoard.position(BitBoard.from(move));
+        Position to = BitBoard.position(BitBoard.to(move));
+        int flag = BitBoard.flag(move);
+        boolean enPassant = flag == BitBoard.FLAG_EN_PASSANT;
+        Piece captured = enPassant
+                ? board.get(new Position(from.getRow(), to.getColumn()))
+                : board.get(to);
+        boolean castle = flag == BitBoard.FLAG_CASTLE;
+        return new Move(from, to, board.get(from), captured,
+                castle && to.getColumn() == 6, castle && to.getColumn() == 2, enPassant,
+                promotionChar(BitBoard.promotion(move)));
+    }
+
+    private static Character promotionChar(int type) {
+        return switch (type) {
+            case BitBoard.QUEEN -> 'Q';
+            case BitBoard.ROOK -> 'R';
+            case BitBoard.BISHOP -> 'B';
+            case BitBoard.KNIGHT -> 'N';
+            default -> null;
+        };
+    }
+
+    /** Lances da própria peça mais o en passant, sem checar xeque (modo de lances ilegais). */
+    private List<Position> pseudoMovesFrom(Piece p, Position from) {
+        List<Position> pseudoMoves = new ArrayList<>(p.getPossibleMoves());
+
+        if (p instanceof Pawn && enPassantTarget != null) {
+            // enPassantTarget é a casa pulada pelo peão adversário: captura na diagonal para ela
+            int dir = p.isWhite() ? -1 : 1;
+            if (enPassantTarget.getRow() == from.getRow() + dir
+                    && Math.abs(enPassantTarget.getColumn() - from.getColumn()) == 1) {
+                Piece adj = board.get(new Position(from.getRow(), enPassantTarget.getColumn()));
+                if (adj instanceof Pawn && adj.isWhite() != p.isWhite()) {
+                    pseudoMoves.add(enPassantTarget);
+                }
             }
         }
 
-        return legalMoves;
+        return pseudoMoves;
     }
 
     public boolean isPromotion(Position from, Position to) {
@@ -147,8 +249,9 @@ public class Game {
         applyMoveInternal(from, to, promotion, true);
 
         checkGameEndConditions();
+        resolvePonder();
 
-        if (!gameOver && !whiteToMove) {
+        if (autoAIMove && !gameOver && !whiteToMove) {
             makeAIMove();
             checkGameEndConditions();
         }
@@ -163,6 +266,9 @@ public class Game {
         Piece p = board.get(from);
         if (p == null) return;
 
+        position.makeMove(position.moveFor(from, to, promotion));
+        if (realMove) legalValid = false;
+
         boolean isKing = (p instanceof King);
         int dCol = Math.abs(to.getColumn() - from.getColumn());
         if (isKing && dCol == 2) {
@@ -208,6 +314,8 @@ public class Game {
         }
 
         Piece capturedBefore = board.get(to);
+        // Decide antes de mover: isPromotion olha a peça que ainda está na origem
+        boolean promotes = promotion != null && isPawn && isPromotion(from, to);
         board.set(to, p);
         board.set(from, null);
         p.setMoved(true);
@@ -219,7 +327,7 @@ public class Game {
             enPassantTarget = null;
         }
 
-        if (promotion != null && isPawn && isPromotion(from, to)) {
+        if (promotes) {
             Piece np = switch (Character.toUpperCase(promotion)) {
                 case 'R' -> new Rook(board, p.isWhite());
                 case 'N' -> new Knight(board, p.isWhite());
@@ -234,7 +342,7 @@ public class Game {
 
         if (realMove) {
             String moveNotation = coord(from) + (capturedBefore != null ? "x" : "-") + coord(to);
-            if (promotion != null && isPawn && isPromotion(from, to)) {
+            if (promotes) {
                 moveNotation += "=" + Character.toUpperCase(promotion);
             }
             addHistory(moveNotation);
@@ -249,6 +357,55 @@ public class Game {
         whiteToMove = !whiteToMove;
     }
 
+    /**
+     * Aplica um lance de teste que pode ser revertido com {@link #unmakeMove()}.
+     * Não registra histórico nem declara vencedor (equivale a applyMoveInternal com realMove=false).
+     */
+    public void makeMove(Position from, Position to, Character promotion) {
+        Piece p = board.get(from);
+        Undo u = new Undo();
+        u.from = from;
+        u.to = to;
+        u.moved = p;
+        u.movedFlag = p != null && p.hasMoved();
+        u.enPassantTarget = enPassantTarget;
+        u.whiteToMove = whiteToMove;
+        if (p != null) {
+            boolean isEnPassant = p instanceof Pawn && from.getColumn() != to.getColumn()
+                    && board.get(to) == null && to.equals(enPassantTarget);
+            u.capturedAt = isEnPassant ? new Position(from.getRow(), to.getColumn()) : to;
+            u.captured = board.get(u.capturedAt);
+            if (p instanceof King && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+                boolean kingSide = to.getColumn() == 6;
+                u.rookFrom = new Position(from.getRow(), kingSide ? 7 : 0);
+                u.rookTo = new Position(from.getRow(), kingSide ? 5 : 3);
+                u.rook = board.get(u.rookFrom);
+                u.rookMovedFlag = u.rook != null && u.rook.hasMoved();
+            }
+        }
+        undoStack.push(u);
+        applyMoveInternal(from, to, promotion, false);
+    }
+
+    /** Desfaz o último {@link #makeMove}: peça capturada, flags "moved", en passant e lado a jogar. */
+    public void unmakeMove() {
+        Undo u = undoStack.pop();
+        whiteToMove = u.whiteToMove;
+        enPassantTarget = u.enPassantTarget;
+        if (u.moved == null) return;
+
+        position.unmakeMove();
+        board.set(u.to, null);
+        board.set(u.from, u.moved);
+        u.moved.setMoved(u.movedFlag);
+        if (u.captured != null) board.set(u.capturedAt, u.captured);
+        if (u.rookFrom != null) {
+            board.set(u.rookTo, null);
+            board.set(u.rookFrom, u.rook);
+            if (u.rook != null) u.rook.setMoved(u.rookMovedFlag);
+        }
+    }
+
     public boolean inCheck(boolean whiteSide) {
         Position kingPos = findKingPosition(whiteSide);
         if (kingPos == null) return false;
@@ -256,81 +413,155 @@ public class Game {
         return isSquareAttacked(kingPos, whiteSide);
     }
 
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] ROOK_DIRS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    /**
+     * Diz se a casa é atacada pelo adversário de {@code byWhite} (byWhite = lado que está sendo atacado).
+     * Olha a partir da casa alvo: padrões de cavalo, rei e peão e a primeira peça em cada raio,
+     * sem gerar os lances das peças adversárias.
+     */
     public boolean isSquareAttacked(Position targetPos, boolean byWhite) {
-        boolean opponentIsWhite = !byWhite;
-        for (Piece opponentPiece : board.pieces(opponentIsWhite)) {
-            if (opponentPiece instanceof Pawn) {
-                for (Position attackPos : ((Pawn) opponentPiece).getAttacks()) {
-                    if (attackPos.equals(targetPos)) {
-                        return true;
-                    }
-                }
-            } else {
-                for (Position possibleMove : opponentPiece.getPossibleMoves()) {
-                    if (possibleMove.equals(targetPos)) {
+        boolean attackerWhite = !byWhite;
+        int row = targetPos.getRow(), col = targetPos.getColumn();
+
+        // Peão branco ataca para cima (linha - 1): está uma linha abaixo do alvo
+        int pawnRow = attackerWhite ? row + 1 : row - 1;
+        if (isPiece(board.get(pawnRow, col - 1), Pawn.class, attackerWhite)
+                || isPiece(board.get(pawnRow, col + 1), Pawn.class, attackerWhite)) {
+            return true;
+        }
+        for (int[] s : KNIGHT_STEPS) {
+            if (isPiece(board.get(row + s[0], col + s[1]), Knight.class, attackerWhite)) return true;
+        }
+        for (int[] s : KING_STEPS) {
+            if (isPiece(board.get(row + s[0], col + s[1]), King.class, attackerWhite)) return true;
+        }
+        return rayAttacked(row, col, ROOK_DIRS, Rook.class, attackerWhite)
+                || rayAttacked(row, col, BISHOP_DIRS, Bishop.class, attackerWhite);
+    }
+
+    /** Primeira peça em cada direção: ataca se for do atacante e for {@code slider} ou dama. */
+    private boolean rayAttacked(int row, int col, int[][] dirs, Class<? extends Piece> slider, boolean attackerWhite) {
+        for (int[] d : dirs) {
+            int r = row + d[0], c = col + d[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                Piece blocker = board.get(r, c);
+                if (blocker != null) {
+                    if (blocker.isWhite() == attackerWhite
+                            && (slider.isInstance(blocker) || blocker instanceof Queen)) {
                         return true;
                     }
+                    break;
                 }
+                r += d[0];
+                c += d[1];
             }
         }
         return false;
     }
 
+    private static boolean isPiece(Piece p, Class<? extends Piece> type, boolean white) {
+        return p != null && p.isWhite() == white && type.isInstance(p);
+    }
+
     public Position findKingPosition(boolean whiteSide) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position p = new Position(r, c);
-                Piece piece = board.get(p);
-                if (piece instanceof King && piece.isWhite() == whiteSide) {
-                    return p;
-                }
-            }
-        }
-        return null;
+        return board.kingPosition(whiteSide);
     }
 
     private void checkGameEndConditions() {
         if (gameOver) return;
-
-        boolean currentSideHasMoves = false;
-        List<Piece> currentPieces = board.pieces(whiteToMove);
-
-        for (Piece p : currentPieces) {
-            Position from = p.getPosition();
-            List<Position> legalMoves = legalMovesFrom(from);
-            if (!legalMoves.isEmpty()) {
-                currentSideHasMoves = true;
-                break;
-            }
-        }
-
-        if (!currentSideHasMoves) {
-            if (inCheck(whiteToMove)) {
-                gameOver = true;
-                winner = whiteToMove ? "Pretas" : "Brancas";
-                System.out.println("XEQUE-MATE! Vencedor: " + winner);
-            } else {
-                gameOver = true;
-                winner = "Empate (Afogamento)";
-                System.out.println("AFOGAMENTO! Jogo empatado.");
-            }
+        // Sem regras, a peça sempre tem algum lance pseudo-legal: só a captura do rei encerra a partida
+        if (allowIllegalMoves) return;
+
+        Status s = status();
+        if (s == Status.CHECKMATE) {
+            gameOver = true;
+            winner = whiteToMove ? "Pretas" : "Brancas";
+            System.out.println("XEQUE-MATE! Vencedor: " + winner);
+        } else if (s == Status.STALEMATE) {
+            gameOver = true;
+            winner = "Empate (Afogamento)";
+            System.out.println("AFOGAMENTO! Jogo empatado.");
+        } else if (position.repetitions() >= 2) {
+            gameOver = true;
+            winner = "Empate (Repetição)";
+            System.out.println("TRIPLA REPETIÇÃO! Jogo empatado.");
+        } else if (position.halfmoveClock() >= BitBoard.FIFTY_MOVE_PLIES) {
+            gameOver = true;
+            winner = "Empate (50 lances)";
+            System.out.println("50 LANCES SEM CAPTURA NEM LANCE DE PEÃO! Jogo empatado.");
         }
     }
 
     public void resetGame() {
+        invalidateAISearch();
         this.board = new Board();
         setupPieces();
+        position = BitBoard.fromBoard(board, true, null);
+        legalValid = false;
         whiteToMove = true;
         gameOver = false;
         winner = null;
         enPassantTarget = null;
         history.clear();
+        undoStack.clear();
         System.out.println("Jogo reiniciado.");
     }
 
+    /**
+     * Carrega uma posição em FEN: tabuleiro, lado a jogar, roques e en passant.
+     * As flags "moved" são deduzidas dos direitos de roque e da linha inicial dos peões.
+     */
+    public void loadFen(String fen) {
+        invalidateAISearch();
+        BitBoard pos = BitBoard.fromFen(fen);
+        Board b = new Board();
+        int rights = pos.castlingRights();
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = pos.pieceAt(sq);
+            if (piece == BitBoard.EMPTY) continue;
+            boolean white = piece < 6;
+            Piece p = switch (piece % 6) {
+                case BitBoard.PAWN -> new Pawn(b, white);
+                case BitBoard.KNIGHT -> new Knight(b, white);
+                case BitBoard.BISHOP -> new Bishop(b, white);
+                case BitBoard.ROOK -> new Rook(b, white);
+                case BitBoard.QUEEN -> new Queen(b, white);
+                default -> new King(b, white);
+            };
+            int row = sq >> 3, col = sq & 7;
+            int homeRow = white ? 7 : 0;
+            int kingSide = white ? BitBoard.CASTLE_WK : BitBoard.CASTLE_BK;
+            int queenSide = white ? BitBoard.CASTLE_WQ : BitBoard.CASTLE_BQ;
+            if (p instanceof Pawn) {
+                p.setMoved(row != (white ? 6 : 1));
+            } else if (p instanceof King) {
+                p.setMoved(row != homeRow || col != 4 || (rights & (kingSide | queenSide)) == 0);
+            } else if (p instanceof Rook) {
+                boolean keepsRight = row == homeRow
+                        && ((col == 7 && (rights & kingSide) != 0) || (col == 0 && (rights & queenSide) != 0));
+                p.setMoved(!keepsRight);
+            }
+            b.placePiece(p, BitBoard.position(sq));
+        }
+        this.board = b;
+        this.position = pos;
+        legalValid = false;
+        whiteToMove = pos.whiteToMove();
+        enPassantTarget = pos.epSquare() < 0 ? null : BitBoard.position(pos.epSquare());
+        gameOver = false;
+        winner = null;
+        history.clear();
+        undoStack.clear();
+    }
+
     public Game snapshot() {
         Game g = new Game();
         g.board = this.board.copy();
+        g.position = this.position.copy();
         g.whiteToMove = this.whiteToMove;
         g.gameOver = this.gameOver;
         g.enPassantTarget = (this.enPassantTarget == null)
@@ -345,8 +576,104 @@ public class Game {
 
     public void makeAIMove() {
         System.out.println("IA (Pretas) está pensando com dificuldade " + aiDifficulty + "...");
-        Move bestMove = aiPlayer.findBestMove(aiDifficulty);
+        Move bestMove = aiTimeMillis > 0
+                ? aiPlayer.findBestMove(AIPlayer.MAX_DEPTH, aiTimeMillis, 0)
+                : aiPlayer.findBestMove(aiDifficulty);
+        applyAIMove(bestMove);
+    }
+
+    /**
+     * Busca o lance da IA numa thread de fundo e o aplica com {@code applyOn} (a GUI passa
+     * {@code SwingUtilities::invokeLater}, para o tabuleiro só mudar na thread de eventos).
+     * A busca trabalha numa cópia da posição, então a interface continua livre para ler o Game.
+     *
+     * O futuro completa com o lance aplicado, ou com null se não havia lance ou se a partida
+     * mudou (resetGame/loadFen) durante a busca: nesse caso o resultado é descartado.
+     * Com o ponder ligado, se o último lance do adversário foi o previsto, a busca que já vinha
+     * rodando no tempo dele é reaproveitada.
+     */
+    public CompletableFuture<Move> requestAIMove(Executor applyOn) {
+        int requestedIn = generation;
+        CompletableFuture<Integer> search = ponderHitSearch;
+        ponderHitSearch = null;
+        if (search == null) {
+            cancelPonder();
+            System.out.println("IA (Pretas) está pensando com dificuldade " + aiDifficulty + "...");
+            search = startSearch(position.copy());
+        } else {
+            System.out.println("IA (Pretas) já estava pensando neste lance (ponder).");
+        }
+        return search.thenApplyAsync(move -> {
+            if (requestedIn != generation || gameOver || move == 0) return null;
+            Move m = toMove(move);
+            applyAIMove(m);
+            checkGameEndConditions();
+            if (aiPondering && !gameOver) startPonder();
+            return m;
+        }, applyOn);
+    }
+
+    /** Agenda uma busca de {@code root} na thread da IA, com a dificuldade/tempo atuais. */
+    private CompletableFuture<Integer> startSearch(BitBoard root) {
+        if (aiExecutor == null) {
+            aiExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "ai-search");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        int depth = aiTimeMillis > 0 ? AIPlayer.MAX_DEPTH : aiDifficulty;
+        long time = aiTimeMillis;
+        int stops = aiPlayer.stopRequests();
+        return CompletableFuture.supplyAsync(() -> aiPlayer.searchPosition(root, depth, time, 0, stops), aiExecutor);
+    }
+
+    /** Começa a buscar a posição depois da resposta que a IA espera do adversário. */
+    private void startPonder() {
+        int expected = aiPlayer.predictedReply(position);
+        if (expected == 0) return;
+        BitBoard root = position.copy();
+        root.makeMove(expected);
+        ponderKey = root.zobristKey();
+        aiPlayer.startPondering();
+        ponderSearch = startSearch(root);
+    }
 
+    /**
+     * Chamado depois do lance do adversário: se foi o lance previsto o ponder segue como busca normal
+     * (ponder hit); senão é abortado na hora, e só a tabela de transposição aproveita o que ele achou.
+     */
+    private void resolvePonder() {
+        if (ponderSearch == null) return;
+        if (!gameOver && position.zobristKey() == ponderKey) {
+            aiPlayer.ponderHit();
+            ponderHitSearch = ponderSearch;
+            ponderSearch = null;
+        } else {
+            cancelPonder();
+        }
+    }
+
+    private void cancelPonder() {
+        if (ponderSearch == null && ponderHitSearch == null) return;
+        aiPlayer.stopPondering();
+        ponderSearch = null;
+        ponderHitSearch = null;
+    }
+
+    /** "Mover agora": a busca em andamento para e entrega o melhor lance que já tem. */
+    public void stopAIThinking() {
+        aiPlayer.stop();
+    }
+
+    /** Descarta a busca em andamento: ela para, e o resultado não será aplicado. */
+    private void invalidateAISearch() {
+        generation++;
+        cancelPonder();
+        aiPlayer.stop();
+    }
+
+    private void applyAIMove(Move bestMove) {
         if (bestMove == null) {
             System.out.println("IA não encontrou movimentos legais.");
             return;
@@ -354,7 +681,7 @@ public class Game {
 
         Character promo = null;
         if (bestMove.getMoved() instanceof Pawn && isPromotion(bestMove.getFrom(), bestMove.getTo())) {
-            promo = 'Q';
+            promo = bestMove.getPromotion() != null ? bestMove.getPromotion() : 'Q';
         }
         applyMoveInternal(bestMove.getFrom(), bestMove.getTo(), promo, true);
         System.out.println("IA moveu: " + coord(bestMove.getFrom()) + " para " + coord(bestMove.getTo()) + (promo != null ? "=" + promo : ""));
@@ -395,4 +722,18 @@ public class Game {
             board.placePiece(new Pawn(board, false), new Position(1, c));
         }
     }
+
+    /** Estado necessário para desfazer um lance de teste. */
+    private static final class Undo {
+        Position from, to;
+        Piece moved;
+        boolean movedFlag;
+        Piece captured;
+        Position capturedAt;
+        Piece rook;
+        Position rookFrom, rookTo;
+        boolean rookMovedFlag;
+        Position enPassantTarget;
+        boolean whiteToMove;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,434 @@
+package controller;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import model.board.BitBoard;
+
+/**
+ * Servidor de partidas humano contra IA sobre TCP, com um protocolo de linhas de texto.
+ * Uma única thread de NIO (Selector) atende todas as conexões sem bloquear; as buscas da IA vão
+ * para um pool fixo de workers, cada um com o próprio AIPlayer (e tabela de transposição),
+ * então a memória por sessão é só a posição e os buffers.
+ *
+ * Justiça e latência: cada sessão tem no máximo uma tarefa no pool (a IA só joga depois do humano,
+ * e um "new" com uma busca antiga ainda no pool espera ela sair), e a fila é FIFO. O tempo de cada
+ * lance é contado desde o pedido: a espera na fila sai do orçamento, então a resposta chega em no
+ * máximo ~{@code moveTime} mesmo com o pool saturado (a busca faz ao menos a primeira iteração).
+ * Sessões sem atividade por {@code idleSeconds} são fechadas.
+ *
+ * Protocolo (uma linha por comando, respostas também em linhas):
+ * <pre>
+ *   new [white|black] [depth N] [time MS]  -> ok new          (e "move ..." se a IA começa)
+ *   move e2e4                              -> ok e "move e7e5" quando a IA responder
+ *   board                                  -> fen FEN
+ *   ping                                   -> pong
+ *   quit                                   -> bye
+ *   fim de partida                         -> result 1-0|0-1|1/2-1/2 motivo
+ *   erros                                  -> error mensagem
+ * </pre>
+ *
+ * Uso: java -cp out controller.GameServer [--port N] [--workers N] [--move-time MS] [--max-depth N]
+ *                                        [--idle SEGUNDOS]
+ */
+public final class GameServer {
+
+    private static final int MAX_LINE = 256;
+
+    private final int port;
+    private final long moveTimeCap;
+    private final int maxDepth;
+    private final long idleMillis;
+    private final ExecutorService workers;
+    private final ThreadLocal<AIPlayer> engines = ThreadLocal.withInitial(() -> {
+        AIPlayer engine = new AIPlayer();
+        engine.setParallelism(1);
+        return engine;
+    });
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private volatile boolean running;
+    /** Tarefas dos workers para a thread do Selector (só ela mexe nas sessões e nas chaves). */
+    private final ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final Set<Session> sessions = new HashSet<>();
+
+    /** Estado de uma conexão; acessado só pela thread do Selector. */
+    private static final class Session {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        SelectionKey key;
+        BitBoard position;
+        boolean humanWhite = true;
+        int depth;
+        long moveTime;
+        boolean searching;
+        /** Há uma tarefa desta sessão no pool (na fila ou rodando): nunca mais de uma por sessão. */
+        boolean jobInFlight;
+        /** Busca pedida enquanto uma tarefa antiga ainda estava no pool; sai quando ela terminar. */
+        boolean searchDeferred;
+        boolean gameOver = true;
+        boolean closeAfterFlush;
+        /**
+         * Muda a cada nova partida: respostas de buscas antigas são descartadas, e tarefas antigas
+         * ainda na fila nem chegam a buscar (por isso volatile: os workers também leem).
+         */
+        volatile int generation;
+        long lastActivity = System.currentTimeMillis();
+
+        Session(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public GameServer(int port, int workerThreads, long moveTimeCap, int maxDepth, long idleSeconds) {
+        this.port = port;
+        this.moveTimeCap = moveTimeCap;
+        this.maxDepth = maxDepth;
+        this.idleMillis = idleSeconds * 1000;
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "server-search");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /** Abre a porta (só localhost); o laço roda em {@link #serve()}. */
+    public void start() throws IOException {
+        Bitbases.startGeneration(); // os AIPlayer dos workers só nascem no primeiro pedido
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+    }
+
+    public int localPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /** Laço do Selector até {@link #shutdown()}. */
+    public void serve() throws IOException {
+        long nextEviction = System.currentTimeMillis() + 1000;
+        while (running) {
+            selector.select(1000);
+            for (Runnable task; (task = pending.poll()) != null; ) task.run();
+
+            for (SelectionKey key : selector.selectedKeys()) {
+                if (!key.isValid()) continue;
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Session session = (Session) key.attachment();
+                try {
+                    if (key.isReadable()) read(session);
+                    if (key.isValid() && key.isWritable()) flush(session);
+                } catch (IOException e) {
+                    close(session);
+                }
+            }
+            selector.selectedKeys().clear();
+
+            long now = System.currentTimeMillis();
+            if (now >= nextEviction) {
+                evictIdle(now);
+                nextEviction = now + 1000;
+            }
+        }
+        for (Session s : new ArrayList<>(sessions)) close(s);
+        server.close();
+        selector.close();
+        workers.shutdownNow();
+    }
+
+    public void shutdown() {
+        running = false;
+        if (selector != null) selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Session session = new Session(channel);
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            sessions.add(session);
+        }
+    }
+
+    private void read(Session session) throws IOException {
+        if (session.channel.read(session.in) < 0) {
+            close(session);
+            return;
+        }
+        session.lastActivity = System.currentTimeMillis();
+        ByteBuffer in = session.in;
+        in.flip();
+        int start = in.position();
+        for (int i = start; i < in.limit(); i++) {
+            if (in.get(i) != '\n') continue;
+            String line = new String(in.array(), start, i - start, StandardCharsets.US_ASCII).trim();
+            start = i + 1;
+            if (!line.isEmpty()) handle(session, line);
+            if (!session.channel.isOpen()) return;
+        }
+        in.position(start);
+        in.compact();
+        if (!in.hasRemaining()) {
+            send(session, "error linha longa demais");
+            session.closeAfterFlush = true;
+            flush(session);
+        }
+    }
+
+    private void handle(Session session, String line) throws IOException {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "new" -> newGame(session, tokens);
+            case "move" -> humanMove(session, tokens);
+            case "board" -> send(session, session.position == null ? "error sem partida" : "fen " + session.position.toFen());
+            case "ping" -> send(session, "pong");
+            case "quit" -> {
+                send(session, "bye");
+                session.closeAfterFlush = true;
+            }
+            default -> send(session, "error comando desconhecido: " + tokens[0]);
+        }
+        flush(session);
+    }
+
+    private void newGame(Session session, String[] tokens) {
+        boolean humanWhite = true;
+        int depth = maxDepth;
+        long time = moveTimeCap;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "white" -> humanWhite = true;
+                    case "black" -> humanWhite = false;
+                    case "depth" -> depth = Math.max(1, Math.min(maxDepth, Integer.parseInt(tokens[++i])));
+                    case "time" -> time = Math.max(1, Math.min(moveTimeCap, Long.parseLong(tokens[++i])));
+                    default -> throw new IllegalArgumentException(tokens[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            send(session, "error argumento inválido em new");
+            return;
+        }
+        session.generation++;
+        session.searching = false;
+        session.searchDeferred = false;
+        session.position = BitBoard.fromFen(Perft.START_FEN);
+        session.humanWhite = humanWhite;
+        session.depth = depth;
+        session.moveTime = time;
+        session.gameOver = false;
+        send(session, "ok new");
+        if (!humanWhite) startSearch(session);
+    }
+
+    private void humanMove(Session session, String[] tokens) {
+        if (session.position == null || session.gameOver) {
+            send(session, "error sem partida em andamento");
+            return;
+        }
+        if (session.searching || session.position.whiteToMove() != session.humanWhite) {
+            send(session, "error aguarde o lance da IA");
+            return;
+        }
+        int[] legal = new int[BitBoard.MAX_MOVES];
+        int n = tokens.length > 1 ? session.position.generateLegalMoves(legal) : 0;
+        int move = 0;
+        for (int i = 0; i < n && move == 0; i++) {
+            if (BitBoard.toUci(legal[i]).equals(tokens[1])) move = legal[i];
+        }
+        if (move == 0) {
+            send(session, "error lance ilegal");
+            return;
+        }
+        session.position.makeMove(move);
+        send(session, "ok");
+        if (!checkGameOver(session)) startSearch(session);
+    }
+
+    /**
+     * Agenda a resposta da IA; o relógio do lance começa agora, não quando um worker pegar a tarefa.
+     * Se a sessão ainda tem uma tarefa de uma partida anterior no pool (vários "new" seguidos), a
+     * busca espera ela sair: um cliente não enche a fila às custas das outras sessões.
+     */
+    private void startSearch(Session session) {
+        session.searching = true;
+        if (session.jobInFlight) {
+            session.searchDeferred = true;
+            return;
+        }
+        session.jobInFlight = true;
+        int generation = session.generation;
+        BitBoard root = session.position.copy();
+        int depth = session.depth;
+        long deadline = System.nanoTime() + session.moveTime * 1_000_000L;
+        workers.execute(() -> {
+            long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+            int move;
+            try {
+                if (generation != session.generation) {
+                    move = 0; // partida trocada enquanto a tarefa esperava: o resultado seria descartado
+                } else if (remaining <= 0) {
+                    // Orçamento gasto na fila: só a profundidade 1, para a fila andar rápido sob carga
+                    move = engines.get().searchPosition(root, 1, 0, 0);
+                } else {
+                    move = engines.get().searchPosition(root, depth, remaining, 0);
+                }
+            } catch (RuntimeException e) {
+                move = 0; // a sessão recebe um erro em vez de ficar esperando para sempre
+            }
+            int result = move;
+            pending.add(() -> aiMoved(session, generation, result));
+            selector.wakeup();
+        });
+    }
+
+    private void aiMoved(Session session, int generation, int move) {
+        session.jobInFlight = false;
+        if (!session.channel.isOpen()) return;
+        if (generation != session.generation) {
+            if (session.searchDeferred) {
+                session.searchDeferred = false;
+                startSearch(session);
+            }
+            return;
+        }
+        session.searching = false;
+        if (move == 0) {
+            send(session, "error falha na busca da IA");
+        } else {
+            session.position.makeMove(move);
+            send(session, "move " + BitBoard.toUci(move));
+            checkGameOver(session);
+        }
+        try {
+            flush(session);
+        } catch (IOException e) {
+            close(session);
+        }
+    }
+
+    /** Mate, afogamento ou empate (bitbases, repetição, 50 lances): avisa o resultado e encerra a partida. */
+    private boolean checkGameOver(Session session) {
+        BitBoard pos = session.position;
+        String result = null;
+        String reason = null;
+        if (pos.generateLegalMoves(new int[BitBoard.MAX_MOVES]) == 0) {
+            boolean mate = pos.inCheck(pos.sideToMove());
+            result = !mate ? "1/2-1/2" : pos.whiteToMove() ? "0-1" : "1-0";
+            reason = mate ? "xeque-mate" : "afogamento";
+        } else if (Bitbases.isDraw(pos)) {
+            result = "1/2-1/2";
+            reason = "material insuficiente";
+        } else if (pos.repetitions() >= 2) {
+            result = "1/2-1/2";
+            reason = "repetição";
+        } else if (pos.halfmoveClock() >= BitBoard.FIFTY_MOVE_PLIES) {
+            result = "1/2-1/2";
+            reason = "50 lances";
+        }
+        if (result == null) return false;
+        session.gameOver = true;
+        send(session, "result " + result + " " + reason);
+        return true;
+    }
+
+    private void send(Session session, String line) {
+        session.out.add(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Escreve o que couber; o resto espera OP_WRITE. */
+    private void flush(Session session) throws IOException {
+        if (!session.channel.isOpen()) return;
+        while (!session.out.isEmpty()) {
+            ByteBuffer head = session.out.peek();
+            session.channel.write(head);
+            if (head.hasRemaining()) {
+                session.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            session.out.poll();
+        }
+        session.key.interestOps(SelectionKey.OP_READ);
+        if (session.closeAfterFlush) close(session);
+    }
+
+    private void evictIdle(long now) {
+        List<Session> idle = new ArrayList<>();
+        for (Session s : sessions) {
+            if (!s.searching && now - s.lastActivity > idleMillis) idle.add(s);
+        }
+        for (Session s : idle) {
+            send(s, "bye inatividade");
+            try {
+                flush(s);
+            } catch (IOException e) {
+                // a conexão já caiu; fecha de qualquer jeito
+            }
+            close(s);
+        }
+    }
+
+    private void close(Session session) {
+        sessions.remove(session);
+        session.generation++;
+        if (session.key != null) session.key.cancel();
+        try {
+            session.channel.close();
+        } catch (IOException e) {
+            // nada a fazer: a sessão já está sendo descartada
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 7878;
+        int workerThreads = Runtime.getRuntime().availableProcessors();
+        long moveTime = 200;
+        int maxDepth = AIPlayer.MAX_DEPTH;
+        long idleSeconds = 600;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--workers" -> workerThreads = Integer.parseInt(args[++i]);
+                case "--move-time" -> moveTime = Long.parseLong(args[++i]);
+                case "--max-depth" -> maxDepth = Integer.parseInt(args[++i]);
+                case "--idle" -> idleSeconds = Long.parseLong(args[++i]);
+                default -> {
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+        SearchMetrics.registerMBean();
+        GameServer server = new GameServer(port, workerThreads, moveTime, maxDepth, idleSeconds);
+        server.start();
+        System.out.println("Servidor de partidas em 127.0.0.1:" + server.localPort()
+                + " (" + workerThreads + " workers, " + moveTime + " ms por lance)");
+        server.serve();
+    }
+}
@@ -0,0 +1,115 @@
+package controller;
+
+import model.board.BitBoard;
+
+/**
+ * Ordenação de lances de uma thread de busca. Notas inteiras, da maior para a menor:
+ * lance da tabela de transposição, capturas e promoções por MVV-LVA (vítima mais valiosa,
+ * atacante menos valioso), os dois lances "killer" do ply (lances calmos que já cortaram
+ * em posições irmãs) e, por fim, os demais lances calmos pela tabela de histórico
+ * (lado, origem, destino), que soma depth² a cada corte beta.
+ *
+ * A busca não ordena a lista inteira: {@link #pickNext} traz o melhor lance restante a cada
+ * passo, e como um corte costuma vir nos primeiros lances, o resto nunca é ordenado.
+ */
+final class MoveOrdering {
+
+    static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int CAPTURE_SCORE = 2_000_000;
+    private static final int KILLER_1_SCORE = 1_000_000;
+    static final int KILLER_2_SCORE = 900_000;
+    /** Teto do histórico (abaixo dos killers); ao passar, a tabela inteira é dividida por dois. */
+    private static final int HISTORY_MAX = 500_000;
+
+    /** killers[ply][0..1], o mais recente primeiro. */
+    private final int[][] killers = new int[SearchWorker.MAX_PLY][2];
+    /** history[lado][origem][destino] */
+    private final int[][][] history = new int[2][64][64];
+
+    /** Dá nota a cada lance; {@code hashMove} = 0 quando não há lance da tabela. */
+    void score(BitBoard pos, int[] moves, int[] scores, int n, int hashMove, int ply) {
+        int side = pos.sideToMove();
+        int[] killer = killers[ply];
+        for (int i = 0; i < n; i++) {
+            int m = moves[i];
+            if (m == hashMove && hashMove != 0) {
+                scores[i] = HASH_MOVE_SCORE;
+            } else if (pos.isTactical(m)) {
+                scores[i] = CAPTURE_SCORE + mvvLva(pos, m);
+            } else if (m == killer[0]) {
+                scores[i] = KILLER_1_SCORE;
+            } else if (m == killer[1]) {
+                scores[i] = KILLER_2_SCORE;
+            } else {
+                scores[i] = history[side][BitBoard.from(m)][BitBoard.to(m)];
+            }
+        }
+    }
+
+    /** Lance calmo que causou corte beta: vira killer do ply e ganha pontos no histórico. */
+    void recordCutoff(BitBoard pos, int move, int depth, int ply) {
+        if (pos.isTactical(move)) return;
+        int[] killer = killers[ply];
+        if (killer[0] != move) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        int[] row = history[pos.sideToMove()][BitBoard.from(move)];
+        row[BitBoard.to(move)] += depth * depth;
+        if (row[BitBoard.to(move)] > HISTORY_MAX) ageHistory();
+    }
+
+    private void ageHistory() {
+        for (int[][] side : history) {
+            for (int[] row : side) {
+                for (int to = 0; to < 64; to++) row[to] >>= 1;
+            }
+        }
+    }
+
+    /** Valor da vítima (en passant = peão) * 10 menos o tipo do atacante, mais o ganho da promoção. */
+    static int mvvLva(BitBoard pos, int move) {
+        int attacker = pos.pieceAt(BitBoard.from(move)) % 6;
+        int promo = BitBoard.promotion(move);
+        int gain = promo == 0 ? 0 : AIPlayer.TYPE_VALUE[promo] - AIPlayer.TYPE_VALUE[BitBoard.PAWN];
+        return (victimValue(pos, move) + gain) * 10 - attacker;
+    }
+
+    static int victimValue(BitBoard pos, int move) {
+        if (BitBoard.flag(move) == BitBoard.FLAG_EN_PASSANT) return AIPlayer.TYPE_VALUE[BitBoard.PAWN];
+        int captured = pos.pieceAt(BitBoard.to(move));
+        return captured == BitBoard.EMPTY ? 0 : AIPlayer.TYPE_VALUE[captured % 6];
+    }
+
+    /** Seleção preguiçosa: troca para a posição {@code i} o lance de maior nota entre i e n - 1. */
+    static void pickNext(int[] moves, int[] scores, int i, int n) {
+        int best = i;
+        for (int j = i + 1; j < n; j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            int m = moves[i];
+            moves[i] = moves[best];
+            moves[best] = m;
+            int s = scores[i];
+            scores[i] = scores[best];
+            scores[best] = s;
+        }
+    }
+
+    /** Ordenação estável por inserção, decrescente por nota (para listas que serão usadas inteiras). */
+    static void sortMoves(int[] moves, int[] scores, int n) {
+        for (int i = 1; i < n; i++) {
+            int m = moves[i];
+            int v = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < v) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = m;
+            scores[j + 1] = v;
+        }
+    }
+}
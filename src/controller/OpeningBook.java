@@ -0,0 +1,163 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import model.board.BitBoard;
+
+/**
+ * Livro de aberturas no layout binário do Polyglot: entradas de 16 bytes big-endian
+ * (chave de 64 bits, lance de 16, peso de 16, "learn" de 32), ordenadas pela chave sem sinal.
+ * O arquivo é mapeado em memória: a busca binária lê direto das páginas, sem carregar o livro no heap.
+ *
+ * A chave é o hash do Polyglot ({@link BitBoard#polyglotKey()}, não o Zobrist do motor), então
+ * livros .bin gerados por outras ferramentas funcionam direto, e os gerados por {@link #build}
+ * funcionam nelas. O lance segue a codificação do Polyglot (roque como "rei captura torre").
+ *
+ * Uso: java -cp out controller.OpeningBook aberturas.txt livro.bin
+ * (cada linha do texto é uma sequência de lances UCI a partir da posição inicial).
+ */
+public final class OpeningBook {
+
+    private static final int ENTRY_SIZE = 16;
+
+    private final MappedByteBuffer data;
+    private final int entries;
+
+    private OpeningBook(MappedByteBuffer data) {
+        this.data = data;
+        this.entries = data.capacity() / ENTRY_SIZE;
+    }
+
+    /** Mapeia o livro (somente leitura); o canal pode ser fechado, o mapeamento continua válido. */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() % ENTRY_SIZE != 0 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Livro de aberturas inválido: " + file);
+            }
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() { return entries; }
+
+    private long key(int i) { return data.getLong(i * ENTRY_SIZE); }
+    private int rawMove(int i) { return data.getShort(i * ENTRY_SIZE + 8) & 0xFFFF; }
+    private int weight(int i) { return data.getShort(i * ENTRY_SIZE + 10) & 0xFFFF; }
+
+    /** Primeira entrada com chave >= key (comparação sem sinal, como o Polyglot ordena). */
+    private int lowerBound(long key) {
+        int lo = 0, hi = entries;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(key(mid), key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Sorteia um lance do livro para a posição, com probabilidade proporcional ao peso.
+     *
+     * @return o lance codificado (ver {@link BitBoard#move}), ou 0 se a posição não está no livro
+     */
+    public int probe(BitBoard pos, Random random) {
+        long key = pos.polyglotKey();
+        int first = lowerBound(key);
+        int total = 0;
+        int end = first;
+        for (; end < entries && key(end) == key; end++) total += weight(end);
+        if (end == first) return 0;
+
+        int[] legal = new int[BitBoard.MAX_MOVES];
+        int n = pos.generateLegalMoves(legal);
+        // Peso 0 é permitido no formato: se todos forem 0, sorteia uniformemente
+        int pick = total > 0 ? random.nextInt(total) : random.nextInt(end - first);
+        for (int i = first; i < end; i++) {
+            pick -= total > 0 ? weight(i) : 1;
+            if (pick < 0) return findLegal(legal, n, rawMove(i));
+        }
+        return 0;
+    }
+
+    /** Lance legal com a codificação do livro, ou 0 (entrada de outro livro ou colisão de hash). */
+    private static int findLegal(int[] legal, int n, int bookMove) {
+        for (int i = 0; i < n; i++) {
+            if (encode(legal[i]) == bookMove) return legal[i];
+        }
+        return 0;
+    }
+
+    /**
+     * Lance no formato do Polyglot: destino (coluna, linha) nos bits 0-5, origem nos bits 6-11 e
+     * promoção (1 = cavalo .. 4 = dama) nos bits 12-14. Linha 0 é a primeira fileira (das Brancas).
+     */
+    static int encode(int move) {
+        int from = BitBoard.from(move);
+        int to = BitBoard.to(move);
+        if (BitBoard.flag(move) == BitBoard.FLAG_CASTLE) {
+            to = (to & ~7) | ((to & 7) > (from & 7) ? 7 : 0); // rei "captura" a própria torre
+        }
+        return polyglotSquare(to) | polyglotSquare(from) << 6 | BitBoard.promotion(move) << 12;
+    }
+
+    private static int polyglotSquare(int sq) {
+        return (7 - (sq >> 3)) << 3 | (sq & 7);
+    }
+
+    /**
+     * Gera um livro a partir de linhas de lances UCI: cada (posição, lance) vale 1 de peso por linha
+     * em que aparece. Um lance ilegal aborta a geração.
+     */
+    public static void build(List<String> lines, Path out) throws IOException {
+        // chave -> (lance do livro -> peso); TreeMap com ordem sem sinal já deixa o arquivo ordenado
+        Map<Long, Map<Integer, Integer>> book = new TreeMap<>(Long::compareUnsigned);
+        int[] legal = new int[BitBoard.MAX_MOVES];
+        for (String line : lines) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            BitBoard pos = BitBoard.fromFen(Perft.START_FEN);
+            for (String uci : line.split("\\s+")) {
+                int n = pos.generateLegalMoves(legal);
+                int move = 0;
+                for (int i = 0; i < n && move == 0; i++) {
+                    if (BitBoard.toUci(legal[i]).equals(uci)) move = legal[i];
+                }
+                if (move == 0) throw new IllegalArgumentException("Lance ilegal '" + uci + "' em: " + line);
+                book.computeIfAbsent(pos.polyglotKey(), k -> new TreeMap<>()).merge(encode(move), 1, Integer::sum);
+                pos.makeMove(move);
+            }
+        }
+
+        List<long[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, Integer>> e : book.entrySet()) {
+            e.getValue().entrySet().stream()
+                    .sorted((a, b) -> b.getValue() - a.getValue())
+                    .forEach(m -> rows.add(new long[]{e.getKey(), m.getKey(), Math.min(m.getValue(), 0xFFFF)}));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(rows.size() * ENTRY_SIZE);
+        for (long[] row : rows) {
+            buffer.putLong(row[0]).putShort((short) row[1]).putShort((short) row[2]).putInt(0);
+        }
+        Files.write(out, buffer.array());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: java controller.OpeningBook <linhas-uci.txt> <livro.bin>");
+            System.exit(2);
+        }
+        build(Files.readAllLines(Path.of(args[0]), StandardCharsets.UTF_8), Path.of(args[1]));
+        System.out.println("Livro gerado: " + OpeningBook.open(Path.of(args[1])).size() + " entradas");
+    }
+}
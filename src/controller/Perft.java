@@ -0,0 +1,222 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import model.board.BitBoard;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Perft: conta as folhas da árvore de lances legais até a profundidade N.
+ * Serve para validar o gerador de lances (comparando com valores de referência conhecidos)
+ * e para medir a vazão dele em nós por segundo.
+ *
+ * Uso: java -cp out controller.Perft [--fen "FEN"] [--depth N] [--divide] [--threads N] [--hash MB]
+ *                                      [--game] [--suite]
+ */
+public final class Perft {
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /** Posições de referência (FEN e contagens por profundidade a partir de 1). */
+    private static final Object[][] SUITE = {
+        {"Inicial", START_FEN, new long[]{20, 400, 8902, 197281, 4865609}},
+        {"Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            new long[]{48, 2039, 97862, 4085603}},
+        {"Posição 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            new long[]{14, 191, 2812, 43238, 674624}},
+        {"Posição 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            new long[]{6, 264, 9467, 422333}},
+        {"Posição 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            new long[]{44, 1486, 62379, 2103487}},
+        {"Posição 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            new long[]{46, 2079, 89890, 3894594}},
+    };
+
+    private Perft() { /* utilitário */ }
+
+    /** Perft sequencial no BitBoard (a última camada só conta os lances). */
+    public static long perft(BitBoard pos, int depth) {
+        return perft(pos, depth, null);
+    }
+
+    /** Perft com cache de subárvores; {@code cache} pode ser null. */
+    public static long perft(BitBoard pos, int depth, Cache cache) {
+        return perft(pos, depth, cache, new int[Math.max(depth, 1)][BitBoard.MAX_MOVES]);
+    }
+
+    /** {@code buffers[d - 1]} guarda os lances da profundidade restante d: nada é alocado por nó. */
+    private static long perft(BitBoard pos, int depth, Cache cache, int[][] buffers) {
+        if (depth == 0) return 1;
+        int[] moves = buffers[depth - 1];
+        int n = pos.generateLegalMoves(moves);
+        if (depth == 1) return n;
+
+        long key = pos.zobristKey();
+        if (cache != null) {
+            long hit = cache.get(key, depth);
+            if (hit >= 0) return hit;
+        }
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            pos.makeMove(moves[i]);
+            total += perft(pos, depth - 1, cache, buffers);
+            pos.unmakeMove();
+        }
+        if (cache != null) cache.put(key, depth, total);
+        return total;
+    }
+
+    /** Perft com os lances da raiz divididos entre {@code threads} threads, cada uma com sua cópia. */
+    public static long perftParallel(BitBoard pos, int depth, int threads, Cache cache) {
+        if (depth <= 1) return perft(pos, depth, cache);
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int n = pos.generateLegalMoves(moves);
+        AtomicLong total = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Runnable> tasks = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                BitBoard copy = pos.copy();
+                copy.makeMove(moves[i]);
+                tasks.add(() -> total.addAndGet(perft(copy, depth - 1, cache)));
+            }
+            pool.submit(() -> tasks.parallelStream().forEach(Runnable::run)).join();
+        } finally {
+            pool.shutdown();
+        }
+        return total.get();
+    }
+
+    /** Perft pelo caminho de objetos: Game.legalMovesFrom + makeMove/unmakeMove (promoções expandidas). */
+    public static long perftGame(Game game, int depth) {
+        if (depth == 0) return 1;
+        long total = 0;
+        for (Piece p : game.board().pieces(game.whiteToMove())) {
+            Position from = p.getPosition();
+            for (Position to : game.legalMovesFrom(from)) {
+                Character[] promos = game.isPromotion(from, to)
+                        ? new Character[]{'Q', 'R', 'B', 'N'}
+                        : new Character[]{null};
+                for (Character promo : promos) {
+                    if (depth == 1) {
+                        total++;
+                        continue;
+                    }
+                    game.makeMove(from, to, promo);
+                    total += perftGame(game, depth - 1);
+                    game.unmakeMove();
+                }
+            }
+        }
+        return total;
+    }
+
+    /** Imprime a contagem de cada lance da raiz (útil para achar o lance que diverge da referência). */
+    public static long divide(BitBoard pos, int depth, Cache cache) {
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int n = pos.generateLegalMoves(moves);
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            pos.makeMove(moves[i]);
+            long count = perft(pos, depth - 1, cache);
+            pos.unmakeMove();
+            System.out.println(BitBoard.toUci(moves[i]) + ": " + count);
+            total += count;
+        }
+        System.out.println("Lances: " + n);
+        return total;
+    }
+
+    /**
+     * Cache de contagens por (hash, profundidade), sem locks: cada entrada é o par
+     * (chave ^ contagem, contagem), como na tabela de transposição.
+     */
+    public static final class Cache {
+        private final long[] table;
+        private final int mask;
+
+        public Cache(int megabytes) {
+            int entries = Integer.highestOneBit(Math.max(1, megabytes * (1 << 20) / 16));
+            this.table = new long[2 * entries];
+            this.mask = entries - 1;
+        }
+
+        private static long mix(long key, int depth) {
+            return key ^ (depth * 0x9E3779B97F4A7C15L);
+        }
+
+        long get(long key, int depth) {
+            long k = mix(key, depth);
+            int i = ((int) k & mask) << 1;
+            long count = table[i + 1];
+            return (table[i] ^ count) == k && count != 0 ? count : -1;
+        }
+
+        void put(long key, int depth, long count) {
+            long k = mix(key, depth);
+            int i = ((int) k & mask) << 1;
+            table[i] = k ^ count;
+            table[i + 1] = count;
+        }
+    }
+
+    public static void main(String[] args) {
+        String fen = START_FEN;
+        int depth = 5;
+        int threads = 1;
+        int hashMb = 0;
+        boolean divide = false, suite = false, objects = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen" -> fen = args[++i];
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--hash" -> hashMb = Integer.parseInt(args[++i]);
+                case "--divide" -> divide = true;
+                case "--suite" -> suite = true;
+                case "--game" -> objects = true;
+                default -> {
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        if (suite) {
+            boolean ok = true;
+            for (Object[] entry : SUITE) {
+                long[] expected = (long[]) entry[2];
+                int d = Math.min(depth, expected.length);
+                long nodes = run((String) entry[0], (String) entry[1], d, threads, hashMb, false, objects);
+                boolean pass = nodes == expected[d - 1];
+                ok &= pass;
+                System.out.println("  " + (pass ? "OK" : "FALHOU (esperado " + expected[d - 1] + ")"));
+            }
+            System.exit(ok ? 0 : 1);
+        }
+        run("FEN", fen, depth, threads, hashMb, divide, objects);
+    }
+
+    private static long run(String name, String fen, int depth, int threads, int hashMb,
+                            boolean divide, boolean objects) {
+        Cache cache = hashMb > 0 ? new Cache(hashMb) : null;
+        long start = System.nanoTime();
+        long nodes;
+        if (objects) {
+            Game game = new Game();
+            game.loadFen(fen);
+            nodes = perftGame(game, depth);
+        } else {
+            BitBoard pos = BitBoard.fromFen(fen);
+            if (divide) nodes = divide(pos, depth, cache);
+            else if (threads > 1) nodes = perftParallel(pos, depth, threads, cache);
+            else nodes = perft(pos, depth, cache);
+        }
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        System.out.printf("%s perft(%d) = %d  [%.3f s, %.0f nós/s]%n", name, depth, nodes, seconds, nodes / seconds);
+        return nodes;
+    }
+}
@@ -0,0 +1,181 @@
+package controller;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import model.board.BitBoard;
+
+/**
+ * Telemetria da busca, ligada sempre: cada SearchWorker conta em campos próprios (sem contenção) e
+ * entrega os contadores ao AIPlayer poucas vezes por busca; no fim da busca o AIPlayer soma aqui,
+ * em LongAdders. Os totais ficam visíveis por JMX ({@code chessjava:type=SearchMetrics}, depois de
+ * {@link #registerMBean()}) e cada busca/iteração vira um evento do JDK Flight Recorder
+ * ({@code chessjava.Search} e {@code chessjava.SearchIteration}), que não custa nada com o JFR desligado.
+ */
+public final class SearchMetrics implements SearchMetricsMBean {
+
+    private static final SearchMetrics GLOBAL = new SearchMetrics();
+    private static final String OBJECT_NAME = "chessjava:type=SearchMetrics";
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final Counters totals = new Counters();
+
+    private volatile int lastDepth;
+    private volatile long lastNodes;
+    private volatile long lastMillis;
+    private volatile long[] lastIterationMillis = new long[0];
+
+    private SearchMetrics() { }
+
+    public static SearchMetrics global() { return GLOBAL; }
+
+    /** Publica as métricas no servidor JMX da plataforma (idempotente). */
+    public static synchronized void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            var server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) server.registerMBean(GLOBAL, name);
+        } catch (JMException e) {
+            System.err.println("Métricas da busca não registradas no JMX: " + e.getMessage());
+        }
+    }
+
+    /** Contadores de uma busca, somados pelos workers. */
+    static final class Counters {
+        final LongAdder quiescenceNodes = new LongAdder();
+        final LongAdder betaCutoffs = new LongAdder();
+        final LongAdder firstMoveCutoffs = new LongAdder();
+        final LongAdder ttProbes = new LongAdder();
+        final LongAdder ttHits = new LongAdder();
+
+        void add(long qNodes, long cutoffs, long firstMove, long probes, long hits) {
+            quiescenceNodes.add(qNodes);
+            betaCutoffs.add(cutoffs);
+            firstMoveCutoffs.add(firstMove);
+            ttProbes.add(probes);
+            ttHits.add(hits);
+        }
+
+        void reset() {
+            quiescenceNodes.reset();
+            betaCutoffs.reset();
+            firstMoveCutoffs.reset();
+            ttProbes.reset();
+            ttHits.reset();
+        }
+    }
+
+    /** Fim de uma busca: soma nos totais, guarda como "última busca" e emite o evento JFR. */
+    void recordSearch(SearchEvent event, int depth, int score, int move, long searchNodes, Counters c,
+                      List<Long> iterationMillis, long millis, int threads) {
+        long q = c.quiescenceNodes.sum(), cut = c.betaCutoffs.sum(), first = c.firstMoveCutoffs.sum();
+        long probes = c.ttProbes.sum(), hits = c.ttHits.sum();
+        searches.increment();
+        nodes.add(searchNodes);
+        totals.add(q, cut, first, probes, hits);
+        lastDepth = depth;
+        lastNodes = searchNodes;
+        lastMillis = millis;
+        lastIterationMillis = iterationMillis.stream().mapToLong(Long::longValue).toArray();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.depth = depth;
+            event.score = score;
+            event.bestMove = BitBoard.toUci(move);
+            event.nodes = searchNodes;
+            event.quiescenceNodes = q;
+            event.betaCutoffs = cut;
+            event.firstMoveCutoffs = first;
+            event.ttProbes = probes;
+            event.ttHits = hits;
+            event.threads = threads;
+            event.commit();
+        }
+    }
+
+    /** Iteração completa da thread principal (só o evento JFR; a duração também vai para a busca). */
+    static void recordIteration(int depth, int score, long nodes, long nanos) {
+        SearchIterationEvent event = new SearchIterationEvent();
+        if (event.shouldCommit()) {
+            event.depth = depth;
+            event.score = score;
+            event.nodes = nodes;
+            event.iterationMillis = nanos / 1_000_000;
+            event.commit();
+        }
+    }
+
+    @Override public long getSearches() { return searches.sum(); }
+    @Override public long getNodes() { return nodes.sum(); }
+    @Override public long getQuiescenceNodes() { return totals.quiescenceNodes.sum(); }
+    @Override public long getBetaCutoffs() { return totals.betaCutoffs.sum(); }
+    @Override public long getTtProbes() { return totals.ttProbes.sum(); }
+    @Override public long getTtHits() { return totals.ttHits.sum(); }
+    @Override public int getLastDepth() { return lastDepth; }
+    @Override public long getLastNodes() { return lastNodes; }
+    @Override public long getLastMillis() { return lastMillis; }
+    @Override public long[] getLastIterationMillis() { return lastIterationMillis.clone(); }
+
+    @Override
+    public double getFirstMoveCutoffRate() {
+        long cutoffs = totals.betaCutoffs.sum();
+        return cutoffs == 0 ? 0 : (double) totals.firstMoveCutoffs.sum() / cutoffs;
+    }
+
+    @Override
+    public double getTtHitRate() {
+        long probes = totals.ttProbes.sum();
+        return probes == 0 ? 0 : (double) totals.ttHits.sum() / probes;
+    }
+
+    @Override
+    public long getLastNodesPerSecond() {
+        long millis = lastMillis;
+        return millis > 0 ? lastNodes * 1000 / millis : lastNodes;
+    }
+
+    @Override
+    public void reset() {
+        searches.reset();
+        nodes.reset();
+        totals.reset();
+        lastDepth = 0;
+        lastNodes = 0;
+        lastMillis = 0;
+        lastIterationMillis = new long[0];
+    }
+
+    @Name("chessjava.Search")
+    @Label("Busca da IA")
+    @Category("ChessJava")
+    static final class SearchEvent extends Event {
+        @Label("Profundidade") int depth;
+        @Label("Valor") int score;
+        @Label("Melhor lance") String bestMove;
+        @Label("Nós") long nodes;
+        @Label("Nós de quiescência") long quiescenceNodes;
+        @Label("Cortes beta") long betaCutoffs;
+        @Label("Cortes no primeiro lance") long firstMoveCutoffs;
+        @Label("Consultas à tabela") long ttProbes;
+        @Label("Acertos na tabela") long ttHits;
+        @Label("Threads") int threads;
+    }
+
+    @Name("chessjava.SearchIteration")
+    @Label("Iteração da busca")
+    @Category("ChessJava")
+    static final class SearchIterationEvent extends Event {
+        @Label("Profundidade") int depth;
+        @Label("Valor") int score;
+        @Label("Nós até aqui") long nodes;
+        @Label("Duração (ms)") long iterationMillis;
+    }
+}
@@ -0,0 +1,24 @@
+package controller;
+
+/** Interface JMX de {@link SearchMetrics}: totais desde o início (ou o último reset) e a última busca. */
+public interface SearchMetricsMBean {
+
+    long getSearches();
+    long getNodes();
+    long getQuiescenceNodes();
+    long getBetaCutoffs();
+    /** Cortes beta no primeiro lance da lista / cortes beta: qualidade da ordenação de lances. */
+    double getFirstMoveCutoffRate();
+    long getTtProbes();
+    long getTtHits();
+    double getTtHitRate();
+
+    int getLastDepth();
+    long getLastNodes();
+    long getLastMillis();
+    long getLastNodesPerSecond();
+    /** Duração de cada iteração completa da última busca (ms), da profundidade 1 em diante. */
+    long[] getLastIterationMillis();
+
+    void reset();
+}
@@ -0,0 +1,309 @@
+package controller;
+
+import model.board.BitBoard;
+
+/**
+ * Estado de busca de uma thread: a própria cópia da posição e o contador de nós.
+ * A tabela de transposição, os limites e o sinal de parada são do {@link AIPlayer} dono
+ * e compartilhados entre todos os workers.
+ */
+final class SearchWorker {
+
+    /** Altura máxima da pilha de busca (buffers por ply). */
+    static final int MAX_PLY = 128;
+    /** Folga da poda delta: captura que nem com isto alcança alpha não é buscada. */
+    private static final int DELTA_MARGIN = 200;
+    /** Profundidade mínima para tentar o lance nulo. */
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    /** A partir desta profundidade, um corte por lance nulo é confirmado por uma busca reduzida normal. */
+    private static final int NULL_MOVE_VERIFY_DEPTH = 7;
+    /** LMR: profundidade mínima e índice do primeiro lance reduzido. */
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_INDEX = 3;
+
+    private final AIPlayer owner;
+    final BitBoard pos;
+    private long nodes;
+    // Telemetria (SearchMetrics): contadores do próprio worker, entregues ao dono em flushNodes
+    private long qNodes;
+    private long betaCutoffs;
+    private long firstMoveCutoffs;
+    private long ttProbes;
+    private long ttHits;
+    final MoveOrdering ordering = new MoveOrdering();
+
+    // Listas de lances e notas de ordenação por ply, alocadas na primeira vez que o ply é alcançado
+    // e reaproveitadas daí em diante: nenhum nó aloca memória
+    private final int[][] moveStack = new int[MAX_PLY][];
+    private final int[][] scoreStack = new int[MAX_PLY][];
+
+    SearchWorker(AIPlayer owner, BitBoard pos) {
+        this.owner = owner;
+        this.pos = pos;
+    }
+
+    /**
+     * Negamax com busca de variante principal (PVS); valores do ponto de vista do lado a jogar.
+     * Faz e desfaz lances em {@code pos}.
+     *
+     * O primeiro lance (o melhor pela ordenação) é buscado com a janela inteira; os demais com
+     * janela nula, só para provar que não passam de alpha, e são rebuscados se passarem.
+     * Além disso:
+     * <ul>
+     *   <li>xeque estende a busca em um ply;</li>
+     *   <li>lance nulo: fora de nós PV e de xeque, se passar a vez com profundidade reduzida ainda
+     *       dá corte beta, o nó é cortado (verificado com uma busca normal reduzida nas profundidades
+     *       altas, e desligado quando o lado só tem rei e peões, onde zugzwang é comum);</li>
+     *   <li>redução de lances tardios (LMR): lances calmos depois dos primeiros são buscados mais
+     *       rasos, mais quanto mais tarde na lista e quanto maior a profundidade, e rebuscados na
+     *       profundidade cheia se surpreenderem.</li>
+     *   <li>finais de rei e peça contra rei empatados pelas {@link Bitbases} valem 0 sem busca;</li>
+     *   <li>voltar a uma posição já vista (na partida ou na própria linha) ou chegar a 50 lances sem
+     *       captura nem lance de peão também vale 0 na hora: trocas de lances sem progresso não
+     *       são buscadas até o fim. Pela regra da FIDE, um mate no centésimo meio-lance ainda vale:
+     *       em xeque, os 50 lances só contam se o lado a jogar tiver lance legal.</li>
+     * </ul>
+     */
+    int search(int depth, int alpha, int beta, int ply, boolean allowNull) {
+        if (pos.isRepetition()) return 0;
+        int us = pos.sideToMove();
+        boolean inCheck = pos.inCheck(us);
+        if (pos.halfmoveClock() >= BitBoard.FIFTY_MOVE_PLIES && (!inCheck || hasLegalMove(ply))) return 0;
+        if (inCheck && ply < MAX_PLY / 2) depth++; // extensão de xeque
+        if (depth <= 0) return quiescence(alpha, beta, ply);
+        if ((++nodes & 1023) == 0) owner.reportNodes(1024);
+        if (owner.isStopped()) return 0;
+        if (ply >= MAX_PLY - 1) return evaluate();
+        if (Bitbases.isDraw(pos)) return 0;
+
+        boolean pvNode = beta - alpha > 1;
+        TranspositionTable table = owner.table();
+        long key = pos.zobristKey();
+        long entry = table.probe(key);
+        ttProbes++;
+        int hashMove = 0;
+        if (entry != 0) {
+            ttHits++;
+            hashMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int v = fromTable(TranspositionTable.value(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && v >= beta)
+                        || (bound == TranspositionTable.UPPER && v <= alpha)) {
+                    return v;
+                }
+            }
+        }
+
+        // Lance nulo
+        if (allowNull && !pvNode && !inCheck && depth >= NULL_MOVE_MIN_DEPTH
+                && hasPieces(us) && evaluate() >= beta) {
+            int r = depth > 6 ? 3 : 2;
+            pos.makeNullMove();
+            int v = -search(depth - 1 - r, -beta, -beta + 1, ply + 1, false);
+            pos.unmakeMove();
+            if (owner.isStopped()) return 0;
+            if (v >= beta) {
+                if (v > AIPlayer.MATE_BOUND) v = beta; // mate "provado" passando a vez não vale
+                if (depth < NULL_MOVE_VERIFY_DEPTH) return v;
+                // Verificação: mesma redução, sem lance nulo, com o lado a jogar movendo de verdade
+                if (search(depth - r, beta - 1, beta, ply, false) >= beta) return v;
+            }
+        }
+
+        ensureBuffers(ply);
+        int[] moves = moveStack[ply];
+        int[] scores = scoreStack[ply];
+        int n = pos.generateLegalMoves(moves);
+        if (n == 0) {
+            // Xeque-mate (mais rápido vale mais) ou afogamento
+            return inCheck ? -AIPlayer.MATE_VALUE + ply : 0;
+        }
+        ordering.score(pos, moves, scores, n, hashMove, ply);
+
+        int alphaOrig = alpha;
+        int best = -AIPlayer.INFINITY;
+        int bestMove = 0;
+
+        for (int i = 0; i < n; i++) {
+            MoveOrdering.pickNext(moves, scores, i, n);
+            int move = moves[i];
+            boolean quiet = !pos.isTactical(move) && scores[i] < MoveOrdering.KILLER_2_SCORE;
+            pos.makeMove(move);
+
+            int value;
+            if (i == 0) {
+                value = -search(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                int reduction = 0;
+                if (quiet && !inCheck && depth >= LMR_MIN_DEPTH && i >= LMR_MIN_INDEX
+                        && !pos.inCheck(pos.sideToMove())) {
+                    reduction = (i >= 2 * LMR_MIN_INDEX && depth >= 2 * LMR_MIN_DEPTH) ? 2 : 1;
+                }
+                value = -search(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (value > alpha && reduction > 0) {
+                    value = -search(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (value > alpha && value < beta) {
+                    value = -search(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            pos.unmakeMove();
+            if (owner.isStopped()) return 0;
+
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        betaCutoffs++;
+                        if (i == 0) firstMoveCutoffs++;
+                        ordering.recordCutoff(pos, move, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(key, bestMove, depth, bound, toTable(best, ply));
+        return best;
+    }
+
+    /**
+     * Quiescência: no horizonte, continua só com capturas e promoções até a posição ficar calma,
+     * para não avaliar no meio de uma troca. O lado a jogar pode ficar com a avaliação estática
+     * (stand pat) em vez de capturar; capturas que perdem material pela troca estática (SEE) ou
+     * que nem com folga alcançariam alpha (poda delta) são puladas. Em xeque não há stand pat
+     * e todas as evasões são buscadas.
+     */
+    int quiescence(int alpha, int beta, int ply) {
+        if ((++nodes & 1023) == 0) owner.reportNodes(1024);
+        qNodes++;
+        if (owner.isStopped()) return 0;
+        if (ply >= MAX_PLY - 1) return evaluate();
+        if (Bitbases.isDraw(pos)) return 0;
+
+        ensureBuffers(ply);
+        int[] moves = moveStack[ply];
+        int[] scores = scoreStack[ply];
+        boolean inCheck = pos.inCheck(pos.sideToMove());
+        int best;
+        int n;
+        if (inCheck) {
+            n = pos.generateLegalMoves(moves);
+            if (n == 0) return -AIPlayer.MATE_VALUE + ply;
+            ordering.score(pos, moves, scores, n, 0, ply);
+            best = -AIPlayer.INFINITY;
+        } else {
+            int standPat = evaluate();
+            if (standPat >= beta) return standPat;
+            alpha = Math.max(alpha, standPat);
+            best = standPat;
+
+            n = 0;
+            int generated = pos.generateLegalCaptures(moves);
+            for (int i = 0; i < generated; i++) {
+                int m = moves[i];
+                // Poda delta: nem ganhando a peça (mais a folga) a captura alcança alpha
+                if (standPat + MoveOrdering.victimValue(pos, m) + promotionGain(m) + DELTA_MARGIN <= alpha) {
+                    continue;
+                }
+                int see = pos.see(m);
+                if (see < 0) continue; // perde material na troca
+                moves[n] = m;
+                scores[n] = see + promotionGain(m);
+                n++;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            MoveOrdering.pickNext(moves, scores, i, n);
+            pos.makeMove(moves[i]);
+            int value = -quiescence(-beta, -alpha, ply + 1);
+            pos.unmakeMove();
+            if (owner.isStopped()) return 0;
+            if (value > best) {
+                best = value;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        betaCutoffs++;
+                        if (i == 0) firstMoveCutoffs++;
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Avaliação estática do ponto de vista do lado a jogar. */
+    private int evaluate() {
+        int score = AIPlayer.evaluateBoard(pos);
+        return pos.whiteToMove() ? score : -score;
+    }
+
+    /** O lado tem alguma peça além de rei e peões? (sem isso, lance nulo é arriscado: zugzwang) */
+    private boolean hasPieces(int color) {
+        return (pos.occupancy(color) & ~pos.pieces(BitBoard.PAWN, color) & ~pos.pieces(BitBoard.KING, color)) != 0;
+    }
+
+    private static int promotionGain(int move) {
+        int promo = BitBoard.promotion(move);
+        return promo == 0 ? 0 : AIPlayer.TYPE_VALUE[promo] - AIPlayer.TYPE_VALUE[BitBoard.PAWN];
+    }
+
+    /** O lado a jogar tem algum lance legal (usa o buffer de lances do ply, antes de ele ser preenchido). */
+    private boolean hasLegalMove(int ply) {
+        ensureBuffers(ply);
+        return pos.generateLegalMoves(moveStack[ply]) > 0;
+    }
+
+    private void ensureBuffers(int ply) {
+        if (moveStack[ply] == null) {
+            moveStack[ply] = new int[BitBoard.MAX_MOVES];
+            scoreStack[ply] = new int[BitBoard.MAX_MOVES];
+        }
+    }
+
+    /** Entrega ao dono os nós e os contadores de telemetria ainda não contabilizados. */
+    void flushNodes() {
+        owner.reportNodes(nodes & 1023);
+        owner.reportStats(qNodes, betaCutoffs, firstMoveCutoffs, ttProbes, ttHits);
+        nodes = 0;
+        qNodes = 0;
+        betaCutoffs = 0;
+        firstMoveCutoffs = 0;
+        ttProbes = 0;
+        ttHits = 0;
+    }
+
+    /** Mates são guardados como distância a partir do nó, não da raiz. */
+    private static int toTable(int value, int ply) {
+        if (value > AIPlayer.MATE_BOUND) return value + ply;
+        if (value < -AIPlayer.MATE_BOUND) return value - ply;
+        return value;
+    }
+
+    private static int fromTable(int value, int ply) {
+        if (value > AIPlayer.MATE_BOUND) return value - ply;
+        if (value < -AIPlayer.MATE_BOUND) return value + ply;
+        return value;
+    }
+
+    /** Coloca o lance na frente, se ele estiver na lista (lances da tabela podem ser de outra posição). */
+    static void moveToFront(int[] moves, int n, int move) {
+        for (int i = 0; i < n; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import model.board.BitBoard;
+
+/**
+ * Torneio de auto-jogo sem interface: o motor A contra o motor B (mesmo código, limites de busca
+ * possivelmente diferentes), muitas partidas ao mesmo tempo, para medir força e vazão.
+ * Cada abertura é jogada duas vezes, trocando as cores. Com limites de profundidade ou de nós a busca
+ * é determinística, então repetir uma abertura repetiria a partida lance por lance: cada par de partidas
+ * sorteia alguns meios-lances legais depois da abertura (--random-plies, com semente fixa por par).
+ * Sem eles (--random-plies 0) o torneio fica limitado a duas partidas por abertura.
+ * No fim sai o placar de A (V/E/D), a diferença de Elo com intervalo de 95%, nós por segundo e
+ * latência média por lance de cada lado.
+ *
+ * Cada partida é uma tarefa num pool do tamanho do número de núcleos, e cada motor busca com uma
+ * thread só: o trabalho de CPU fica limitado ao pool, seja qual for o número de partidas.
+ *
+ * Uso: java -cp out controller.SelfPlay [--games N] [--concurrency N] [--a LIMITES] [--b LIMITES]
+ *                                       [--openings arquivo] [--opening-plies N] [--max-plies N]
+ *                                       [--random-plies N] [--seed N]
+ * LIMITES: "depth=4", "time=100" (ms por lance), "nodes=50000" ou combinações separadas por vírgula.
+ * O arquivo de aberturas tem uma abertura por linha: lances UCI (como resources/openings.txt) ou um FEN.
+ */
+public final class SelfPlay {
+
+    /** Limites de busca de um lado; 0 = sem limite. */
+    record Limits(int depth, long timeMillis, long nodes) {
+        static Limits parse(String spec) {
+            int depth = 0;
+            long time = 0, nodes = 0;
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split("=");
+                switch (kv[0]) {
+                    case "depth" -> depth = Integer.parseInt(kv[1]);
+                    case "time" -> time = Long.parseLong(kv[1]);
+                    case "nodes" -> nodes = Long.parseLong(kv[1]);
+                    default -> throw new IllegalArgumentException("Limite desconhecido: " + part);
+                }
+            }
+            if (depth == 0 && time == 0 && nodes == 0) throw new IllegalArgumentException("Sem limite: " + spec);
+            return new Limits(depth, time, nodes);
+        }
+
+        int maxDepth() { return depth > 0 ? depth : AIPlayer.MAX_DEPTH; }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            if (depth > 0) parts.add("depth=" + depth);
+            if (timeMillis > 0) parts.add("time=" + timeMillis);
+            if (nodes > 0) parts.add("nodes=" + nodes);
+            return String.join(",", parts);
+        }
+    }
+
+    /** Resultado de uma partida; índices 0 = motor A, 1 = motor B. */
+    record GameResult(int scoreA, String reason, long[] nodes, long[] nanos, int[] moves) { }
+
+    private final Limits[] limits;
+    private final int maxPlies;
+    /** Meios-lances sorteados depois de cada abertura. */
+    private final int randomPlies;
+    private final long seed;
+    /** Dois motores por thread do pool, reaproveitados entre partidas (tabela limpa a cada uma). */
+    private final ThreadLocal<AIPlayer[]> engines = ThreadLocal.withInitial(() -> {
+        AIPlayer[] pair = {new AIPlayer(), new AIPlayer()};
+        for (AIPlayer engine : pair) engine.setParallelism(1);
+        return pair;
+    });
+
+    public SelfPlay(Limits a, Limits b, int maxPlies, int randomPlies, long seed) {
+        this.limits = new Limits[]{a, b};
+        this.maxPlies = maxPlies;
+        this.randomPlies = randomPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * Joga uma partida a partir da abertura (lances UCI ou FEN) seguida dos meios-lances sorteados
+     * do par {@code pairIndex}; {@code aWhite} diz a cor de A.
+     */
+    GameResult play(String opening, int pairIndex, boolean aWhite) {
+        AIPlayer[] pair = engines.get();
+        for (AIPlayer engine : pair) engine.clearHash();
+        long[] nodes = new long[2];
+        long[] nanos = new long[2];
+        int[] moves = new int[2];
+
+        BitBoard pos = openingPosition(opening);
+        int[] legal = new int[BitBoard.MAX_MOVES];
+        Random random = new Random(seed + pairIndex);
+        for (int i = 0; i < randomPlies; i++) {
+            int n = pos.generateLegalMoves(legal);
+            if (n == 0) break;
+            pos.makeMove(legal[random.nextInt(n)]);
+        }
+        for (int ply = 0; ; ply++) {
+            int whiteScore; // +1 Brancas ganham, 0 empate, -1 Pretas
+            String reason;
+            if (pos.generateLegalMoves(legal) == 0) {
+                boolean mate = pos.inCheck(pos.sideToMove());
+                whiteScore = !mate ? 0 : pos.whiteToMove() ? -1 : 1;
+                reason = mate ? "xeque-mate" : "afogamento";
+            } else if (pos.repetitions() >= 2) {
+                whiteScore = 0;
+                reason = "repetição";
+            } else if (pos.halfmoveClock() >= BitBoard.FIFTY_MOVE_PLIES) {
+                whiteScore = 0;
+                reason = "50 lances";
+            } else if (Bitbases.isDraw(pos)) {
+                whiteScore = 0;
+                reason = "material";
+            } else if (ply >= maxPlies) {
+                whiteScore = 0;
+                reason = "limite de lances";
+            } else {
+                int side = pos.whiteToMove() == aWhite ? 0 : 1;
+                Limits l = limits[side];
+                long start = System.nanoTime();
+                int move = pair[side].searchPosition(pos.copy(), l.maxDepth(), l.timeMillis(), l.nodes());
+                nanos[side] += System.nanoTime() - start;
+                nodes[side] += pair[side].getNodes();
+                moves[side]++;
+                pos.makeMove(move);
+                continue;
+            }
+            return new GameResult(aWhite ? whiteScore : -whiteScore, reason, nodes, nanos, moves);
+        }
+    }
+
+    private static BitBoard openingPosition(String opening) {
+        if (opening.contains("/")) return BitBoard.fromFen(opening);
+        BitBoard pos = BitBoard.fromFen(Perft.START_FEN);
+        int[] legal = new int[BitBoard.MAX_MOVES];
+        for (String uci : opening.split("\\s+")) {
+            if (uci.isEmpty()) continue;
+            int n = pos.generateLegalMoves(legal);
+            int move = 0;
+            for (int i = 0; i < n && move == 0; i++) {
+                if (BitBoard.toUci(legal[i]).equals(uci)) move = legal[i];
+            }
+            if (move == 0) throw new IllegalArgumentException("Lance ilegal '" + uci + "' na abertura: " + opening);
+            pos.makeMove(move);
+        }
+        return pos;
+    }
+
+    /** Placar acumulado do ponto de vista de A. */
+    public static final class Stats {
+        int wins, draws, losses;
+        final long[] nodes = new long[2];
+        final long[] nanos = new long[2];
+        final long[] moves = new long[2];
+        final Map<String, Integer> reasons = new HashMap<>();
+
+        void add(GameResult r) {
+            if (r.scoreA() > 0) wins++;
+            else if (r.scoreA() < 0) losses++;
+            else draws++;
+            reasons.merge(r.reason(), 1, Integer::sum);
+            for (int side = 0; side < 2; side++) {
+                nodes[side] += r.nodes()[side];
+                nanos[side] += r.nanos()[side];
+                moves[side] += r.moves()[side];
+            }
+        }
+
+        int games() { return wins + draws + losses; }
+
+        /** Fração de pontos de A. */
+        double score() { return (wins + draws / 2.0) / games(); }
+
+        /** Diferença de Elo para uma fração de pontos (infinita em 0 e 1). */
+        static double elo(double score) {
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        /**
+         * Limites inferior e superior do intervalo de 95% do Elo, pelo intervalo de Wilson da fração
+         * de pontos: fica dentro de (0, 1) mesmo com placares desequilibrados em poucas partidas, e o
+         * intervalo não é simétrico em Elo. Só um placar perfeito deixa um dos lados infinito.
+         */
+        double[] eloBounds() {
+            int n = games();
+            double s = score();
+            double z = 1.96, z2 = z * z;
+            double center = (s + z2 / (2 * n)) / (1 + z2 / n);
+            double half = z * Math.sqrt(s * (1 - s) / n + z2 / (4.0 * n * n)) / (1 + z2 / n);
+            return new double[]{elo(center - half), elo(center + half)};
+        }
+
+        public String summary() {
+            double[] bounds = eloBounds();
+            return String.format("%d partidas: +%d =%d -%d  (%.1f%%)  Elo %+.1f [%+.1f, %+.1f]",
+                    games(), wins, draws, losses, 100 * score(), elo(score()), bounds[0], bounds[1]);
+        }
+
+        public String engineLine(int side) {
+            double seconds = nanos[side] / 1e9;
+            return String.format("%.0f nós/s, %.1f ms por lance (%d lances)",
+                    seconds > 0 ? nodes[side] / seconds : 0, moves[side] > 0 ? nanos[side] / 1e6 / moves[side] : 0,
+                    moves[side]);
+        }
+    }
+
+    /** Joga {@code games} partidas com {@code concurrency} threads e devolve o placar. */
+    public Stats run(List<String> openings, int games, int concurrency) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "self-play");
+            t.setDaemon(true);
+            return t;
+        });
+        ExecutorCompletionService<GameResult> done = new ExecutorCompletionService<>(pool);
+        for (int i = 0; i < games; i++) {
+            String opening = openings.get((i / 2) % openings.size());
+            int pairIndex = i / 2;
+            boolean aWhite = i % 2 == 0;
+            done.submit(() -> play(opening, pairIndex, aWhite));
+        }
+
+        Stats stats = new Stats();
+        int report = Math.max(1, games / 20);
+        try {
+            for (int i = 1; i <= games; i++) {
+                stats.add(done.take().get());
+                if (i % report == 0 || i == games) System.out.println(stats.summary());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha numa partida", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return stats;
+    }
+
+    /** Aberturas do arquivo, cortadas em {@code plies} meios-lances (linhas de lances) ou como estão (FEN). */
+    static List<String> loadOpenings(Path file, int plies) throws IOException {
+        List<String> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            if (line.contains("/")) {
+                openings.add(line);
+            } else {
+                String[] moves = line.split("\\s+");
+                String cut = String.join(" ", List.of(moves).subList(0, Math.min(plies, moves.length)));
+                if (!openings.contains(cut)) openings.add(cut);
+            }
+        }
+        return openings;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = 100;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        Limits a = new Limits(4, 0, 0);
+        Limits b = new Limits(3, 0, 0);
+        Path openingsFile = Path.of("resources", "openings.txt");
+        int openingPlies = 8;
+        int maxPlies = 400;
+        int randomPlies = 2;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--a" -> a = Limits.parse(args[++i]);
+                case "--b" -> b = Limits.parse(args[++i]);
+                case "--openings" -> openingsFile = Path.of(args[++i]);
+                case "--opening-plies" -> openingPlies = Integer.parseInt(args[++i]);
+                case "--max-plies" -> maxPlies = Integer.parseInt(args[++i]);
+                case "--random-plies" -> randomPlies = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> {
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        SearchMetrics.registerMBean();
+        List<String> openings = loadOpenings(openingsFile, openingPlies);
+        if (randomPlies == 0 && games > 2 * openings.size()) {
+            // Sem sorteio as partidas de uma abertura se repetiriam e contariam como amostras independentes
+            System.err.printf("Aviso: sem --random-plies, só %d partidas distintas (2 por abertura); limitando a elas.%n",
+                    2 * openings.size());
+            games = 2 * openings.size();
+        }
+        System.out.printf("A (%s) contra B (%s): %d partidas, %d aberturas, %d threads%n",
+                a, b, games, openings.size(), concurrency);
+        long start = System.nanoTime();
+        Stats stats = new SelfPlay(a, b, maxPlies, randomPlies, seed).run(openings, games, concurrency);
+        System.out.println();
+        System.out.println("Resultado de A: " + stats.summary());
+        System.out.println("Motor A: " + stats.engineLine(0));
+        System.out.println("Motor B: " + stats.engineLine(1));
+        System.out.println("Fim das partidas: " + stats.reasons);
+        System.out.printf("Tempo total: %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
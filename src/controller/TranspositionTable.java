@@ -0,0 +1,64 @@
+package controller;
+
+/**
+ * Tabela de transposição de tamanho fixo (potência de dois), indexada pelo hash Zobrist.
+ * Cada entrada ocupa dois longs vizinhos de um único long[]: a chave verificada e um long
+ * empacotado com lance (bits 0-19), profundidade (20-27), tipo de limite (28-29) e valor em
+ * centipeões (32-63).
+ *
+ * É compartilhada entre threads sem locks (Lazy SMP, busca paralela na raiz): a chave é guardada
+ * como {@code key ^ data}, então uma entrada escrita pela metade por duas threads simplesmente
+ * não confere na leitura e conta como ausente.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;
+    /** Valor é limite inferior (houve corte beta). */
+    public static final int LOWER = 1;
+    /** Valor é limite superior (nenhum lance passou de alpha). */
+    public static final int UPPER = 2;
+
+    /** table[2i] = key ^ data, table[2i + 1] = data */
+    private final long[] table;
+    private final int mask;
+
+    /** @param entries número de entradas; arredondado para baixo até uma potência de dois */
+    public TranspositionTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(entries, 1));
+        this.table = new long[2 * size];
+        this.mask = size - 1;
+    }
+
+    /** Retorna os dados empacotados da entrada, ou 0 se a chave não estiver na tabela. */
+    public long probe(long key) {
+        int i = ((int) key & mask) << 1;
+        long d = table[i + 1];
+        return (table[i] ^ d) == key ? d : 0L;
+    }
+
+    public void store(long key, int move, int depth, int bound, int value) {
+        int i = ((int) key & mask) << 1;
+        // Mesma posição já guardada com mais profundidade: mantém a entrada mais valiosa
+        long old = table[i + 1];
+        if ((table[i] ^ old) == key && depth(old) > depth) return;
+        long d = pack(move, depth, bound, value);
+        table[i] = key ^ d;
+        table[i + 1] = d;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(table, 0L);
+    }
+
+    private static long pack(int move, int depth, int bound, int value) {
+        return (move & 0xFFFFFL)
+                | ((long) (depth & 0xFF) << 20)
+                | ((long) (bound & 3) << 28)
+                | ((long) value << 32);
+    }
+
+    public static int move(long entry) { return (int) (entry & 0xFFFFF); }
+    public static int depth(long entry) { return (int) ((entry >>> 20) & 0xFF); }
+    public static int bound(long entry) { return (int) ((entry >>> 28) & 3); }
+    public static int value(long entry) { return (int) (entry >>> 32); }
+}
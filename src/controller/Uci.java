@@ -0,0 +1,282 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import model.board.BitBoard;
+
+/**
+ * Front end UCI sem interface gráfica: lê comandos da entrada padrão e responde na saída padrão,
+ * para usar o motor em GUIs de xadrez e ferramentas de teste. Usa só o BitBoard e o AIPlayer
+ * (nem Game, que escreve mensagens no console, nem nada do AWT/Swing), então sobe em milissegundos.
+ *
+ * Comandos: uci, isready, ucinewgame, setoption (Threads, BookFile), position startpos|fen ... [moves ...],
+ * go [depth|movetime|wtime|btime|winc|binc|movestogo|nodes|infinite|ponder], ponderhit, stop, quit.
+ *
+ * Uso: java -cp out controller.Uci
+ */
+public final class Uci {
+
+    /** Margem de tempo por lance para a comunicação com a GUI (ms). */
+    private static final long MOVE_OVERHEAD = 50;
+    /** Lances que se supõe faltarem até o controle quando a GUI não manda movestogo. */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final PrintStream out;
+    private final AIPlayer engine = new AIPlayer();
+    private BitBoard position = BitBoard.fromFen(Perft.START_FEN);
+    private Thread searchThread;
+    /** go infinite/ponder: o bestmove só sai depois de stop ou ponderhit, mesmo que a busca acabe antes. */
+    private boolean holdBestMove;
+
+    public Uci(PrintStream out) {
+        this.out = out;
+        engine.setSearchListener(this::sendInfo);
+    }
+
+    public static void main(String[] args) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        new Uci(System.out).run(in);
+    }
+
+    /**
+     * Lê comandos até quit ou fim da entrada. Um comando malformado (FEN inválido, número faltando
+     * ou fora do formato) é ignorado com um "info string" para a GUI, sem derrubar o motor.
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            try {
+                if (!handle(line.trim())) break;
+            } catch (RuntimeException e) {
+                send("info string comando inválido: " + line.trim() + " (" + describe(e) + ")");
+            }
+        }
+        stopSearch();
+    }
+
+    private static String describe(RuntimeException e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName()
+                : e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    /** Executa um comando; false em quit. */
+    boolean handle(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "uci" -> {
+                send("id name ChessJava");
+                send("id author ChessJava");
+                send("option name Threads type spin default " + engine.getParallelism() + " min 1 max 256");
+                send("option name Ponder type check default false");
+                send("option name BookFile type string default <empty>");
+                send("uciok");
+            }
+            case "isready" -> {
+                awaitBitbases();
+                send("readyok");
+            }
+            case "ucinewgame" -> {
+                stopSearch();
+                engine.clearHash();
+                position = BitBoard.fromFen(Perft.START_FEN);
+            }
+            case "setoption" -> setOption(line);
+            case "position" -> {
+                stopSearch();
+                setPosition(tokens);
+            }
+            case "go" -> {
+                stopSearch();
+                go(tokens);
+            }
+            case "ponderhit" -> {
+                engine.ponderHit();
+                releaseBestMove();
+            }
+            case "stop" -> {
+                engine.stop();
+                releaseBestMove();
+            }
+            case "quit" -> {
+                return false;
+            }
+            case "" -> { }
+            default -> send("info string comando desconhecido: " + line);
+        }
+        return true;
+    }
+
+    /** isready: a GUI espera o motor terminar de iniciar, então as bitbases já ficam prontas aqui. */
+    private static void awaitBitbases() {
+        try {
+            Bitbases.awaitTables();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void setOption(String line) {
+        // setoption name <nome> [value <valor>]; o nome pode ter espaços
+        int nameAt = line.indexOf(" name ");
+        if (nameAt < 0) return;
+        int valueAt = line.indexOf(" value ");
+        String name = (valueAt < 0 ? line.substring(nameAt + 6) : line.substring(nameAt + 6, valueAt)).trim();
+        String value = valueAt < 0 ? "" : line.substring(valueAt + 7).trim();
+        switch (name.toLowerCase()) {
+            case "threads" -> engine.setParallelism(Integer.parseInt(value));
+            case "bookfile" -> {
+                try {
+                    engine.setOpeningBook(value.isEmpty() || value.equals("<empty>")
+                            ? null : OpeningBook.open(Path.of(value)));
+                } catch (IOException e) {
+                    send("info string livro não carregado: " + e.getMessage());
+                }
+            }
+            case "ponder" -> { } // o ponder é pedido pela GUI com "go ponder"
+            default -> send("info string opção desconhecida: " + name);
+        }
+    }
+
+    private void setPosition(String[] tokens) {
+        int i = 1;
+        BitBoard pos;
+        if (tokens.length > 1 && tokens[1].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            for (i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) fen.append(tokens[i]).append(' ');
+            pos = BitBoard.fromFen(fen.toString().trim());
+        } else {
+            pos = BitBoard.fromFen(Perft.START_FEN);
+            i = 2;
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            int[] legal = new int[BitBoard.MAX_MOVES];
+            for (i++; i < tokens.length; i++) {
+                int move = parseMove(pos, tokens[i], legal);
+                if (move == 0) {
+                    send("info string lance ilegal: " + tokens[i]);
+                    break;
+                }
+                pos.makeMove(move);
+            }
+        }
+        position = pos;
+    }
+
+    private static int parseMove(BitBoard pos, String uci, int[] legal) {
+        int n = pos.generateLegalMoves(legal);
+        for (int i = 0; i < n; i++) {
+            if (BitBoard.toUci(legal[i]).equals(uci)) return legal[i];
+        }
+        return 0;
+    }
+
+    private void go(String[] tokens) {
+        int depth = AIPlayer.MAX_DEPTH;
+        long nodes = 0, moveTime = 0, whiteTime = 0, blackTime = 0, whiteInc = 0, blackInc = 0;
+        int movesToGo = 0;
+        boolean infinite = false, ponder = false;
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "depth" -> depth = Integer.parseInt(tokens[++i]);
+                case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                case "movetime" -> moveTime = Long.parseLong(tokens[++i]);
+                case "wtime" -> whiteTime = Long.parseLong(tokens[++i]);
+                case "btime" -> blackTime = Long.parseLong(tokens[++i]);
+                case "winc" -> whiteInc = Long.parseLong(tokens[++i]);
+                case "binc" -> blackInc = Long.parseLong(tokens[++i]);
+                case "movestogo" -> movesToGo = Integer.parseInt(tokens[++i]);
+                case "infinite" -> infinite = true;
+                case "ponder" -> ponder = true;
+                default -> { }
+            }
+        }
+
+        long time = moveTime;
+        long remaining = position.whiteToMove() ? whiteTime : blackTime;
+        if (time == 0 && remaining > 0 && !infinite) {
+            long inc = position.whiteToMove() ? whiteInc : blackInc;
+            int togo = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+            time = Math.max(1, Math.min(remaining / togo + inc * 3 / 4, remaining - MOVE_OVERHEAD));
+        }
+
+        BitBoard root = position.copy();
+        int maxDepth = depth;
+        long timeMillis = time;
+        long maxNodes = nodes;
+        int stops = engine.stopRequests();
+        synchronized (this) {
+            holdBestMove = infinite || ponder;
+        }
+        if (ponder) engine.startPondering();
+        searchThread = new Thread(() -> {
+            int best = engine.searchPosition(root, maxDepth, timeMillis, maxNodes, stops);
+            awaitRelease();
+            sendBestMove(root, best);
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    private synchronized void awaitRelease() {
+        while (holdBestMove) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private synchronized void releaseBestMove() {
+        holdBestMove = false;
+        notifyAll();
+    }
+
+    /** Para a busca em andamento (se houver) e espera o bestmove dela sair. */
+    private void stopSearch() {
+        Thread thread = searchThread;
+        if (thread == null) return;
+        engine.stopPondering();
+        releaseBestMove();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    private void sendBestMove(BitBoard root, int best) {
+        if (best == 0) {
+            send("bestmove 0000");
+            return;
+        }
+        root.makeMove(best);
+        int reply = engine.predictedReply(root);
+        send("bestmove " + BitBoard.toUci(best) + (reply != 0 ? " ponder " + BitBoard.toUci(reply) : ""));
+    }
+
+    private void sendInfo(AIPlayer.SearchInfo info) {
+        long nps = info.millis() > 0 ? info.nodes() * 1000 / info.millis() : info.nodes();
+        send("info depth " + info.depth() + " score " + score(info.score()) + " nodes " + info.nodes()
+                + " time " + info.millis() + " nps " + nps + " pv " + info.bestMove());
+    }
+
+    /** "cp N", ou "mate N" (em lances, negativo se o motor leva mate) para valores de mate. */
+    private static String score(int value) {
+        if (value > AIPlayer.MATE_BOUND) return "mate " + (AIPlayer.MATE_VALUE - value + 1) / 2;
+        if (value < -AIPlayer.MATE_BOUND) return "mate " + -((AIPlayer.MATE_VALUE + value) / 2);
+        return "cp " + value;
+    }
+
+    private void send(String message) {
+        synchronized (out) {
+            out.println(message);
+            out.flush();
+        }
+    }
+}
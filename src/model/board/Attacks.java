@@ -0,0 +1,163 @@
+package model.board;
+
+/**
+ * Tabelas de ataque pré-calculadas para o tabuleiro em bitboards.
+ *
+ * Convenção de casas: índice = linha * 8 + coluna, igual a {@link Position}
+ * (a8 = 0, h8 = 7, a1 = 56, h1 = 63).
+ * Cavalo, rei e peão usam tabelas simples; torre e bispo usam "magic bitboards"
+ * (máscara de bloqueadores * número mágico, deslocado, indexa a tabela de ataques).
+ */
+public final class Attacks {
+
+    public static final long[] KNIGHT = new long[64];
+    public static final long[] KING = new long[64];
+    /** PAWN[cor][casa]: casas atacadas por um peão daquela cor (0 = brancas, 1 = pretas). */
+    public static final long[][] PAWN = new long[2][64];
+    /** BETWEEN[a][b]: casas estritamente entre a e b quando alinhadas (linha, coluna ou diagonal); 0 se não. */
+    public static final long[][] BETWEEN = new long[64][64];
+    /** LINE[a][b]: a linha inteira que passa por a e b (incluindo as duas), ou 0 se não estiverem alinhadas. */
+    public static final long[][] LINE = new long[64][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    private static final int[][] ROOK_DIRS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    // Números mágicos gerados offline (busca aleatória com semente fixa) para esta numeração de casas.
+    private static final long[] ROOK_MAGIC = {
+        0x6080004000B086A0L, 0x0440200010004006L, 0x4100081043002000L, 0x0180100008008044L,
+        0x1480040002080080L, 0x0900080100040052L, 0xC880020001000080L, 0x0100002040810002L,
+        0x08028001804000A0L, 0x820A002900408204L, 0x3202001242002480L, 0x0400800800801000L,
+        0x2400800800040080L, 0x0140808002000400L, 0x0804007201100804L, 0x0143000041000082L,
+        0x400680800068C008L, 0x41D0004040002000L, 0x0021010020081040L, 0x0102020008211240L,
+        0xA080828004010800L, 0x0024004040020100L, 0x0200040010024188L, 0x008082000882D40DL,
+        0xA000800080204000L, 0x4020100040004020L, 0x0942002200104081L, 0x0010040040400800L,
+        0x0084080100050010L, 0x0C29000300080400L, 0x7000220C00811810L, 0x804904120008A041L,
+        0x2200400020800091L, 0x004A002082004900L, 0x0203190041002000L, 0xC001001001000820L,
+        0x0044008004800800L, 0x0800800400800200L, 0x8000080204000110L, 0x0200800846802B00L,
+        0x0860400020888000L, 0x3010022000424000L, 0x0810080400202001L, 0x0108001000210100L,
+        0x00C1001008010004L, 0x0002000804010100L, 0x2041021068040011L, 0x6200010080420034L,
+        0x80010021C0800300L, 0x0020002040100040L, 0x100E220010804600L, 0xC010040040080040L,
+        0x2008180081040180L, 0x1005000204008900L, 0x8108800100020080L, 0x001300208A004100L,
+        0x098100201C408001L, 0xC3810280400931A1L, 0x000600E108104082L, 0x2420210010002895L,
+        0x0503001410080023L, 0xC001000400020801L, 0x0800103082410804L, 0x4000182084090042L
+    };
+
+    private static final long[] BISHOP_MAGIC = {
+        0x0440080800A08015L, 0x0810040800802840L, 0x0211114403027144L, 0x00880A0820000080L,
+        0x000403082400002AL, 0xC400821040008A00L, 0x2400680210100088L, 0x1E02020454020812L,
+        0x02001002AA080600L, 0x1048200802408020L, 0x8414108084810700L, 0x0804080A10208109L,
+        0x1008011040100000L, 0x44A8943008080000L, 0x4044040108281EC0L, 0x06088101080104A2L,
+        0x4046001104101400L, 0xC018011181050402L, 0x04C1001005C08504L, 0x2004242202020002L,
+        0x8004000211200000L, 0x300081E100A00100L, 0x2000800218010880L, 0x0114490484008840L,
+        0x4808080A21821010L, 0x7102220420040C00L, 0x0048010088044501L, 0x28C4040000401080L,
+        0x0021010020104000L, 0x0008102002100408L, 0x0822008024040194L, 0x0C0202A001908800L,
+        0x480D041302202028L, 0x0004012008480200L, 0x1000405002284400L, 0x0030240400880120L,
+        0x0490020080001005L, 0x0018081420011000L, 0x00A1412108140410L, 0x0C40810048110401L,
+        0x00020A30C0022461L, 0x8002084C12000400L, 0x1201002088405000L, 0x90000A0166008400L,
+        0x0000408101010210L, 0x01C0880810201040L, 0x01080820C0800408L, 0x0002020200289200L,
+        0x8810620820081000L, 0x041024044C140124L, 0x2000271401040086L, 0xA082020020880000L,
+        0x00C0005002022000L, 0x02000830019A0000L, 0xD011101001004800L, 0x10101011004480A1L,
+        0x0002002401080800L, 0x08B0004402080228L, 0x8504024C22081200L, 0x000C000106105404L,
+        0x0000030110020210L, 0x0108001220220420L, 0x0501202191050100L, 0x0C082008264D0020L
+    };
+
+    static {
+        int[][] knightDeltas = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >> 3, c = sq & 7;
+            for (int[] d : knightDeltas) KNIGHT[sq] |= bit(r + d[0], c + d[1]);
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (dr != 0 || dc != 0) KING[sq] |= bit(r + dr, c + dc);
+                }
+            }
+            PAWN[0][sq] = bit(r - 1, c - 1) | bit(r - 1, c + 1);
+            PAWN[1][sq] = bit(r + 1, c - 1) | bit(r + 1, c + 1);
+
+            ROOK_MASK[sq] = relevantMask(sq, ROOK_DIRS);
+            BISHOP_MASK[sq] = relevantMask(sq, BISHOP_DIRS);
+            ROOK_SHIFT[sq] = 64 - Long.bitCount(ROOK_MASK[sq]);
+            BISHOP_SHIFT[sq] = 64 - Long.bitCount(BISHOP_MASK[sq]);
+            ROOK_TABLE[sq] = buildTable(sq, ROOK_MASK[sq], ROOK_MAGIC[sq], ROOK_SHIFT[sq], ROOK_DIRS);
+            BISHOP_TABLE[sq] = buildTable(sq, BISHOP_MASK[sq], BISHOP_MAGIC[sq], BISHOP_SHIFT[sq], BISHOP_DIRS);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) continue;
+                long ab = (1L << a) | (1L << b);
+                if ((rook(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = rook(a, 1L << b) & rook(b, 1L << a);
+                    LINE[a][b] = (rook(a, 0) & rook(b, 0)) | ab;
+                } else if ((bishop(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = bishop(a, 1L << b) & bishop(b, 1L << a);
+                    LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | ab;
+                }
+            }
+        }
+    }
+
+    private Attacks() { /* utilitário */ }
+
+    public static long rook(int sq, long occupied) {
+        return ROOK_TABLE[sq][(int) (((occupied & ROOK_MASK[sq]) * ROOK_MAGIC[sq]) >>> ROOK_SHIFT[sq])];
+    }
+
+    public static long bishop(int sq, long occupied) {
+        return BISHOP_TABLE[sq][(int) (((occupied & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq]) >>> BISHOP_SHIFT[sq])];
+    }
+
+    public static long queen(int sq, long occupied) {
+        return rook(sq, occupied) | bishop(sq, occupied);
+    }
+
+    private static long bit(int r, int c) {
+        return (r >= 0 && r < 8 && c >= 0 && c < 8) ? 1L << (r * 8 + c) : 0L;
+    }
+
+    /** Casas que podem bloquear o raio, sem a borda final (não mudam o resultado). */
+    private static long relevantMask(int sq, int[][] dirs) {
+        long mask = 0;
+        for (int[] d : dirs) {
+            int r = (sq >> 3) + d[0], c = (sq & 7) + d[1];
+            while (r + d[0] >= 0 && r + d[0] < 8 && c + d[1] >= 0 && c + d[1] < 8) {
+                mask |= 1L << (r * 8 + c);
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return mask;
+    }
+
+    /** Ataques calculados raio a raio; usado só para preencher as tabelas. */
+    private static long slowAttacks(int sq, long occupied, int[][] dirs) {
+        long attacks = 0;
+        for (int[] d : dirs) {
+            int r = (sq >> 3) + d[0], c = (sq & 7) + d[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                long b = 1L << (r * 8 + c);
+                attacks |= b;
+                if ((occupied & b) != 0) break;
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long[] buildTable(int sq, long mask, long magic, int shift, int[][] dirs) {
+        long[] table = new long[1 << (64 - shift)];
+        long subset = 0;
+        do {
+            table[(int) ((subset * magic) >>> shift)] = slowAttacks(sq, subset, dirs);
+            subset = (subset - mask) & mask; // próximo subconjunto (Carry-Rippler)
+        } while (subset != 0);
+        return table;
+    }
+}
@@ -0,0 +1,816 @@
+package model.board;
+
+import model.pieces.*;
+
+/**
+ * Posição em bitboards: doze conjuntos de peças (um long por tipo e cor) mais ocupação.
+ * É a representação usada pela busca da IA; o {@link Board} de objetos continua servindo a GUI.
+ *
+ * Casas seguem a numeração de {@link Position}: índice = linha * 8 + coluna (a8 = 0, h1 = 63).
+ * Lances são codificados em um int: origem (6 bits), destino (6 bits), flag (2 bits) e
+ * tipo da promoção (3 bits, 0 = sem promoção).
+ */
+public class BitBoard {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+    public static final int EMPTY = -1;
+
+    public static final int CASTLE_WK = 1;
+    public static final int CASTLE_WQ = 2;
+    public static final int CASTLE_BK = 4;
+    public static final int CASTLE_BQ = 8;
+
+    public static final int FLAG_NONE = 0;
+    public static final int FLAG_DOUBLE_PUSH = 1;
+    public static final int FLAG_EN_PASSANT = 2;
+    public static final int FLAG_CASTLE = 3;
+
+    public static final int MAX_MOVES = 256;
+    /** Meio-lances sem captura nem lance de peão que empatam a partida (regra dos 50 lances). */
+    public static final int FIFTY_MOVE_PLIES = 100;
+    /** Marcador na pilha de desfazer para o lance nulo (-1 marca lance de casa vazia). */
+    private static final int NULL_MOVE = -2;
+
+    private static final long RANK_8 = 0xFFL;
+    private static final long RANK_1 = 0xFFL << 56;
+    private static final long RANK_3 = 0xFFL << 40;
+    private static final long RANK_6 = 0xFFL << 16;
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+
+    /** Direitos de roque que permanecem quando uma peça sai de (ou chega a) cada casa. */
+    private static final int[] CASTLE_KEEP = new int[64];
+
+    static {
+        java.util.Arrays.fill(CASTLE_KEEP, CASTLE_WK | CASTLE_WQ | CASTLE_BK | CASTLE_BQ);
+        CASTLE_KEEP[60] &= ~(CASTLE_WK | CASTLE_WQ);
+        CASTLE_KEEP[63] &= ~CASTLE_WK;
+        CASTLE_KEEP[56] &= ~CASTLE_WQ;
+        CASTLE_KEEP[4] &= ~(CASTLE_BK | CASTLE_BQ);
+        CASTLE_KEEP[7] &= ~CASTLE_BK;
+        CASTLE_KEEP[0] &= ~CASTLE_BQ;
+    }
+
+    /** pieces[tipo + 6 * cor] */
+    private final long[] pieces = new long[12];
+    private final long[] occupancy = new long[2];
+    private long all;
+    /** Índice da peça (tipo + 6 * cor) em cada casa, ou EMPTY. */
+    private final int[] mailbox = new int[64];
+
+    private int side = WHITE;
+    private int castling;
+    private int epSquare = -1;
+    /** Hash Zobrist da posição, mantido incrementalmente. */
+    private long key;
+    /** Material + peça-casa (meio-jogo e final) e fase, mantidos junto com as peças. */
+    private int mgScore;
+    private int egScore;
+    private int phase;
+    /** Meio-lances desde a última captura ou lance de peão. */
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    /**
+     * Hashes das posições anteriores da partida, a mais recente no topo, para detectar repetições.
+     * Anda junto com a pilha de desfazer, mas uma cópia herda os hashes ainda repetíveis (desde a
+     * última captura ou lance de peão) sem herdar os lances.
+     */
+    private long[] keyHistory = new long[64];
+    private int historySize = 0;
+
+    // Pilha de desfazer: o que makeMove não consegue deduzir de volta a partir do lance.
+    private int[] undoMove = new int[64];
+    private int[] undoCaptured = new int[64];
+    private int[] undoCastling = new int[64];
+    private int[] undoEp = new int[64];
+    private long[] undoKey = new long[64];
+    private int[] undoHalfmove = new int[64];
+    /** Lista de ganhos da troca estática (uma por posição: cada thread de busca tem sua cópia). */
+    private final int[] seeGain = new int[34];
+    private int undoSize = 0;
+
+    public BitBoard() {
+        java.util.Arrays.fill(mailbox, EMPTY);
+    }
+
+    /** Monta a posição a partir do tabuleiro de objetos (direitos de roque vêm das flags "moved"). */
+    public static BitBoard fromBoard(Board board, boolean whiteToMove, Position enPassantTarget) {
+        BitBoard b = new BitBoard();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.get(new Position(r, c));
+                if (p != null) b.addPiece(r * 8 + c, typeOf(p) + (p.isWhite() ? 0 : 6));
+            }
+        }
+        b.side = whiteToMove ? WHITE : BLACK;
+        b.castling = castlingFromBoard(board);
+        b.epSquare = enPassantTarget == null ? -1 : square(enPassantTarget);
+        b.hashState();
+        return b;
+    }
+
+    /**
+     * Lê uma posição em FEN ("rnbqkbnr/pppppppp/8/... w KQkq - 0 1").
+     * Os contadores de lances no fim são opcionais.
+     *
+     * @throws IllegalArgumentException se o FEN estiver malformado
+     */
+    public static BitBoard fromFen(String fen) {
+        String[] parts = fen.trim().split("\\s+");
+        if (parts.length < 4) throw new IllegalArgumentException("FEN incompleto: " + fen);
+        BitBoard b = new BitBoard();
+        int r = 0, c = 0;
+        for (char ch : parts[0].toCharArray()) {
+            if (ch == '/') {
+                r++;
+                c = 0;
+            } else if (Character.isDigit(ch)) {
+                c += ch - '0';
+            } else {
+                int type = "pnbrqk".indexOf(Character.toLowerCase(ch));
+                if (type < 0 || r > 7 || c > 7) throw new IllegalArgumentException("FEN inválido: " + fen);
+                b.addPiece(r * 8 + c, type + (Character.isUpperCase(ch) ? 0 : 6));
+                c++;
+            }
+        }
+        b.side = parts[1].equals("b") ? BLACK : WHITE;
+        for (char ch : parts[2].toCharArray()) {
+            switch (ch) {
+                case 'K' -> b.castling |= CASTLE_WK;
+                case 'Q' -> b.castling |= CASTLE_WQ;
+                case 'k' -> b.castling |= CASTLE_BK;
+                case 'q' -> b.castling |= CASTLE_BQ;
+                default -> { }
+            }
+        }
+        b.epSquare = parts[3].equals("-") ? -1 : square(parts[3]);
+        if (parts.length > 4) b.halfmoveClock = Integer.parseInt(parts[4]);
+        if (parts.length > 5) b.fullmoveNumber = Math.max(1, Integer.parseInt(parts[5]));
+        b.hashState();
+        return b;
+    }
+
+    /** Posição em FEN, com os contadores de meio-lances e de lances. */
+    public String toFen() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < 8; r++) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                int piece = mailbox[r * 8 + c];
+                if (piece == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) sb.append(empty);
+                empty = 0;
+                char ch = "pnbrqk".charAt(piece % 6);
+                sb.append(piece < 6 ? Character.toUpperCase(ch) : ch);
+            }
+            if (empty > 0) sb.append(empty);
+            if (r < 7) sb.append('/');
+        }
+        sb.append(side == WHITE ? " w " : " b ");
+        if (castling == 0) sb.append('-');
+        if ((castling & CASTLE_WK) != 0) sb.append('K');
+        if ((castling & CASTLE_WQ) != 0) sb.append('Q');
+        if ((castling & CASTLE_BK) != 0) sb.append('k');
+        if ((castling & CASTLE_BQ) != 0) sb.append('q');
+        sb.append(' ').append(epSquare < 0 ? "-" : position(epSquare).toString());
+        sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return sb.toString();
+    }
+
+    /** Acrescenta ao hash (já com as peças) os roques, o en passant e o lado a jogar. */
+    private void hashState() {
+        key ^= Zobrist.CASTLING[castling];
+        if (epSquare >= 0) key ^= Zobrist.EP_FILE[epSquare & 7];
+        if (side == BLACK) key ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    public BitBoard copy() {
+        BitBoard b = new BitBoard();
+        System.arraycopy(pieces, 0, b.pieces, 0, 12);
+        System.arraycopy(mailbox, 0, b.mailbox, 0, 64);
+        b.occupancy[WHITE] = occupancy[WHITE];
+        b.occupancy[BLACK] = occupancy[BLACK];
+        b.all = all;
+        b.side = side;
+        b.castling = castling;
+        b.epSquare = epSquare;
+        b.key = key;
+        b.mgScore = mgScore;
+        b.egScore = egScore;
+        b.phase = phase;
+        b.halfmoveClock = halfmoveClock;
+        b.fullmoveNumber = fullmoveNumber;
+        int keep = Math.min(historySize, halfmoveClock);
+        if (keep > b.keyHistory.length) b.keyHistory = new long[keep * 2];
+        System.arraycopy(keyHistory, historySize - keep, b.keyHistory, 0, keep);
+        b.historySize = keep;
+        return b;
+    }
+
+    // ---------------------------------------------------------------- acesso
+
+    public int sideToMove() { return side; }
+    public boolean whiteToMove() { return side == WHITE; }
+    public int castlingRights() { return castling; }
+    public int epSquare() { return epSquare; }
+    public long zobristKey() { return key; }
+    /** Hash no padrão do Polyglot (livros de aberturas), calculado do zero; ver {@link Polyglot}. */
+    public long polyglotKey() { return Polyglot.key(this); }
+    /** Meio-lances desde a última captura ou lance de peão. */
+    public int halfmoveClock() { return halfmoveClock; }
+    public int fullmoveNumber() { return fullmoveNumber; }
+    /** Material + tabelas peça-casa em centipeões (Brancas positivo), já interpolado pela fase. */
+    public int pieceSquareScore() { return PieceSquare.blend(mgScore, egScore, phase); }
+    /** Fase de jogo: 0 = só reis e peões, {@link PieceSquare#MAX_PHASE} = material completo. */
+    public int phase() { return phase; }
+    public long occupied() { return all; }
+    public long occupancy(int color) { return occupancy[color]; }
+    public long pieces(int type, int color) { return pieces[type + 6 * color]; }
+    /** Índice da peça (tipo + 6 * cor) na casa, ou EMPTY. */
+    public int pieceAt(int sq) { return mailbox[sq]; }
+
+    public int kingSquare(int color) {
+        long k = pieces[KING + 6 * color];
+        return k == 0 ? -1 : Long.numberOfTrailingZeros(k);
+    }
+
+    public boolean inCheck(int color) {
+        int k = kingSquare(color);
+        return k >= 0 && isSquareAttacked(k, color ^ 1);
+    }
+
+    /** A casa é atacada por alguma peça da cor {@code byColor}? Olha a partir da casa alvo. */
+    public boolean isSquareAttacked(int sq, int byColor) {
+        int o = 6 * byColor;
+        if ((Attacks.PAWN[byColor ^ 1][sq] & pieces[PAWN + o]) != 0) return true;
+        if ((Attacks.KNIGHT[sq] & pieces[KNIGHT + o]) != 0) return true;
+        if ((Attacks.KING[sq] & pieces[KING + o]) != 0) return true;
+        long queens = pieces[QUEEN + o];
+        if ((Attacks.bishop(sq, all) & (pieces[BISHOP + o] | queens)) != 0) return true;
+        return (Attacks.rook(sq, all) & (pieces[ROOK + o] | queens)) != 0;
+    }
+
+    /** Todas as casas atacadas pela cor (usado pela avaliação). */
+    public long attacksBy(int color) {
+        int o = 6 * color;
+        long att = 0;
+        long pawns = pieces[PAWN + o];
+        att |= color == WHITE
+                ? ((pawns & ~FILE_A) >>> 9) | ((pawns & ~FILE_H) >>> 7)
+                : ((pawns & ~FILE_H) << 9) | ((pawns & ~FILE_A) << 7);
+        for (long b = pieces[KNIGHT + o]; b != 0; b &= b - 1) att |= Attacks.KNIGHT[Long.numberOfTrailingZeros(b)];
+        for (long b = pieces[BISHOP + o] | pieces[QUEEN + o]; b != 0; b &= b - 1) {
+            att |= Attacks.bishop(Long.numberOfTrailingZeros(b), all);
+        }
+        for (long b = pieces[ROOK + o] | pieces[QUEEN + o]; b != 0; b &= b - 1) {
+            att |= Attacks.rook(Long.numberOfTrailingZeros(b), all);
+        }
+        for (long b = pieces[KING + o]; b != 0; b &= b - 1) att |= Attacks.KING[Long.numberOfTrailingZeros(b)];
+        return att;
+    }
+
+    // ---------------------------------------------------------------- lances
+
+    public static int move(int from, int to, int flag, int promotion) {
+        return from | (to << 6) | (flag << 12) | (promotion << 14);
+    }
+
+    /** Lance em notação de coordenadas ("e2e4", "e7e8q"). */
+    public static String toUci(int move) {
+        String s = position(from(move)).toString() + position(to(move));
+        int promo = promotion(move);
+        return promo == 0 ? s : s + "pnbrqk".charAt(promo);
+    }
+
+    public static int from(int move) { return move & 63; }
+    public static int to(int move) { return (move >>> 6) & 63; }
+    public static int flag(int move) { return (move >>> 12) & 3; }
+    public static int promotion(int move) { return (move >>> 14) & 7; }
+
+    /**
+     * Converte um lance do controller (origem, destino, promoção) para a codificação interna,
+     * deduzindo roque, en passant e avanço duplo pelo estado atual.
+     * Promoção nula mantém o peão no destino, como faz {@code Game.applyMoveInternal}.
+     */
+    public int moveFor(Position from, Position to, Character promotion) {
+        int f = square(from), t = square(to);
+        int piece = mailbox[f];
+        int type = piece == EMPTY ? EMPTY : piece % 6;
+        int flag = FLAG_NONE;
+        if (type == KING && Math.abs((t & 7) - (f & 7)) == 2) {
+            flag = FLAG_CASTLE;
+        } else if (type == PAWN && Math.abs(t - f) == 16) {
+            flag = FLAG_DOUBLE_PUSH;
+        } else if (type == PAWN && t == epSquare && (t & 7) != (f & 7) && mailbox[t] == EMPTY) {
+            flag = FLAG_EN_PASSANT;
+        }
+        int promo = 0;
+        if (type == PAWN && promotion != null && (t < 8 || t >= 56)) {
+            promo = switch (Character.toUpperCase(promotion)) {
+                case 'R' -> ROOK;
+                case 'N' -> KNIGHT;
+                case 'B' -> BISHOP;
+                default -> QUEEN;
+            };
+        }
+        return move(f, t, flag, promo);
+    }
+
+    /** Aplica o lance (sem checar legalidade), guardando o necessário para {@link #unmakeMove()}. */
+    public void makeMove(int move) {
+        int from = from(move), to = to(move), flag = flag(move), promo = promotion(move);
+        int piece = mailbox[from];
+        int us = side;
+        int capSq = flag == FLAG_EN_PASSANT ? (us == WHITE ? to + 8 : to - 8) : to;
+        pushUndo(piece == EMPTY ? -1 : move, mailbox[capSq]);
+        if (piece == EMPTY) return;
+        halfmoveClock = piece % 6 == PAWN || mailbox[capSq] != EMPTY ? 0 : halfmoveClock + 1;
+        if (us == BLACK) fullmoveNumber++;
+
+        if (mailbox[capSq] != EMPTY) removePiece(capSq);
+        removePiece(from);
+        addPiece(to, promo != 0 ? promo + 6 * us : piece);
+
+        if (flag == FLAG_CASTLE) {
+            int row = to & ~7;
+            if ((to & 7) == 6) {
+                movePiece(row + 7, row + 5);
+            } else {
+                movePiece(row, row + 3);
+            }
+        }
+
+        key ^= Zobrist.CASTLING[castling];
+        castling &= CASTLE_KEEP[from] & CASTLE_KEEP[to];
+        key ^= Zobrist.CASTLING[castling];
+        if (epSquare >= 0) key ^= Zobrist.EP_FILE[epSquare & 7];
+        epSquare = flag == FLAG_DOUBLE_PUSH ? (from + to) >> 1 : -1;
+        if (epSquare >= 0) key ^= Zobrist.EP_FILE[epSquare & 7];
+        side ^= 1;
+        key ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /** Passa a vez sem mover (para a poda de lance nulo); desfeito por {@link #unmakeMove()}. */
+    public void makeNullMove() {
+        pushUndo(NULL_MOVE, EMPTY);
+        // Repetições através de um lance nulo não valem: a janela de repetição recomeça aqui
+        halfmoveClock = 0;
+        if (epSquare >= 0) key ^= Zobrist.EP_FILE[epSquare & 7];
+        epSquare = -1;
+        side ^= 1;
+        key ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /** Desfaz o último {@link #makeMove(int)} ou {@link #makeNullMove()}: peça capturada, roque, en passant e lado a jogar. */
+    public void unmakeMove() {
+        int top = --undoSize;
+        historySize--;
+        int move = undoMove[top];
+        castling = undoCastling[top];
+        epSquare = undoEp[top];
+        halfmoveClock = undoHalfmove[top];
+        if (move < 0) {
+            if (move == NULL_MOVE) side ^= 1;
+            key = undoKey[top];
+            return;
+        }
+
+        side ^= 1;
+        if (side == BLACK) fullmoveNumber--;
+        int from = from(move), to = to(move), flag = flag(move);
+        int piece = promotion(move) != 0 ? PAWN + 6 * side : mailbox[to];
+        removePiece(to);
+        addPiece(from, piece);
+
+        int captured = undoCaptured[top];
+        if (captured != EMPTY) {
+            addPiece(flag == FLAG_EN_PASSANT ? (side == WHITE ? to + 8 : to - 8) : to, captured);
+        }
+        if (flag == FLAG_CASTLE) {
+            int row = to & ~7;
+            if ((to & 7) == 6) {
+                movePiece(row + 5, row + 7);
+            } else {
+                movePiece(row + 3, row);
+            }
+        }
+        key = undoKey[top];
+    }
+
+    private void pushUndo(int move, int captured) {
+        if (undoSize == undoMove.length) {
+            int len = undoSize * 2;
+            undoMove = java.util.Arrays.copyOf(undoMove, len);
+            undoCaptured = java.util.Arrays.copyOf(undoCaptured, len);
+            undoCastling = java.util.Arrays.copyOf(undoCastling, len);
+            undoEp = java.util.Arrays.copyOf(undoEp, len);
+            undoKey = java.util.Arrays.copyOf(undoKey, len);
+            undoHalfmove = java.util.Arrays.copyOf(undoHalfmove, len);
+        }
+        if (historySize == keyHistory.length) keyHistory = java.util.Arrays.copyOf(keyHistory, historySize * 2);
+        keyHistory[historySize++] = key;
+        undoMove[undoSize] = move;
+        undoCaptured[undoSize] = captured;
+        undoCastling[undoSize] = castling;
+        undoEp[undoSize] = epSquare;
+        undoKey[undoSize] = key;
+        undoHalfmove[undoSize] = halfmoveClock;
+        undoSize++;
+    }
+
+    /**
+     * Quantas vezes a posição atual já apareceu antes na partida. Só olha o mesmo lado a jogar e
+     * as posições desde a última captura ou lance de peão (antes disso nenhuma pode se repetir).
+     */
+    public int repetitions() {
+        int count = 0;
+        int oldest = Math.max(0, historySize - halfmoveClock);
+        for (int i = historySize - 2; i >= oldest; i -= 2) {
+            if (keyHistory[i] == key) count++;
+        }
+        return count;
+    }
+
+    /** A posição atual já apareceu antes: na busca, voltar a ela vale empate. */
+    public boolean isRepetition() {
+        int oldest = Math.max(0, historySize - halfmoveClock);
+        for (int i = historySize - 2; i >= oldest; i -= 2) {
+            if (keyHistory[i] == key) return true;
+        }
+        return false;
+    }
+
+    /** Lance legal = não deixa o próprio rei atacado. */
+    public boolean isLegal(int move) {
+        int us = side;
+        makeMove(move);
+        boolean legal = !inCheck(us);
+        unmakeMove();
+        return legal;
+    }
+
+    /** Peças da cor {@code byColor} que atacam a casa, com a ocupação dada (para ver "através" do rei). */
+    public long attackersTo(int sq, int byColor, long occupied) {
+        int o = 6 * byColor;
+        long queens = pieces[QUEEN + o];
+        return (Attacks.PAWN[byColor ^ 1][sq] & pieces[PAWN + o])
+                | (Attacks.KNIGHT[sq] & pieces[KNIGHT + o])
+                | (Attacks.KING[sq] & pieces[KING + o])
+                | (Attacks.bishop(sq, occupied) & (pieces[BISHOP + o] | queens))
+                | (Attacks.rook(sq, occupied) & (pieces[ROOK + o] | queens));
+    }
+
+    /**
+     * Gera só os lances legais do lado a jogar em {@code out}; retorna a quantidade.
+     * Xeques e peças cravadas são calculados uma vez: em xeque duplo só o rei anda, em xeque simples
+     * os lances precisam capturar o atacante ou bloquear o raio, e peças cravadas só andam sobre a
+     * linha do rei. Sobra um único teste por make/unmake, para o en passant (raro e cheio de casos).
+     */
+    public int generateLegalMoves(int[] out) {
+        return generateLegal(out, false);
+    }
+
+    /** Só os lances legais táticos: capturas (en passant incluído) e promoções, para a quiescência. */
+    public int generateLegalCaptures(int[] out) {
+        return generateLegal(out, true);
+    }
+
+    private int generateLegal(int[] out, boolean tacticalOnly) {
+        int us = side, them = us ^ 1, o = 6 * us;
+        int ksq = kingSquare(us);
+        if (ksq < 0) {
+            // Posição sem rei (só com lances ilegais liberados na GUI): qualquer lance serve
+            int n = generateMoves(out);
+            if (!tacticalOnly) return n;
+            int kept = 0;
+            for (int i = 0; i < n; i++) {
+                if (isTactical(out[i])) out[kept++] = out[i];
+            }
+            return kept;
+        }
+        long own = occupancy[us], enemy = occupancy[them];
+        long destinations = tacticalOnly ? enemy : ~own;
+        int n = 0;
+
+        // Rei: a casa de destino não pode ser atacada com o rei já fora da origem
+        long occWithoutKing = all ^ (1L << ksq);
+        for (long t = Attacks.KING[ksq] & destinations; t != 0; t &= t - 1) {
+            int to = Long.numberOfTrailingZeros(t);
+            if (attackersTo(to, them, occWithoutKing) == 0) out[n++] = move(ksq, to, FLAG_NONE, 0);
+        }
+
+        long checkers = attackersTo(ksq, them, all);
+        if (Long.bitCount(checkers) > 1) return n;
+        long checkMask = checkers == 0
+                ? -1L
+                : checkers | Attacks.BETWEEN[ksq][Long.numberOfTrailingZeros(checkers)];
+
+        // Cravadas: peça própria sozinha entre o rei e uma peça deslizante inimiga
+        long pinned = 0;
+        long snipers = (Attacks.rook(ksq, 0) & (pieces[ROOK + 6 * them] | pieces[QUEEN + 6 * them]))
+                | (Attacks.bishop(ksq, 0) & (pieces[BISHOP + 6 * them] | pieces[QUEEN + 6 * them]));
+        for (long sn = snipers; sn != 0; sn &= sn - 1) {
+            long blockers = Attacks.BETWEEN[ksq][Long.numberOfTrailingZeros(sn)] & all;
+            if (Long.bitCount(blockers) == 1) pinned |= blockers & own;
+        }
+
+        // Peões
+        long empty = ~all;
+        int push = us == WHITE ? -8 : 8;
+        long promoRank = us == WHITE ? RANK_8 : RANK_1;
+        long startRank = us == WHITE ? RANK_1 >>> 8 : RANK_8 << 8;
+        for (long b = pieces[PAWN + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long allowed = checkMask & ((pinned & (1L << from)) != 0 ? Attacks.LINE[ksq][from] : -1L);
+            int to = from + push;
+            if ((empty & (1L << to)) != 0) {
+                boolean promotes = (promoRank & (1L << to)) != 0;
+                if ((allowed & (1L << to)) != 0 && (promotes || !tacticalOnly)) {
+                    n = addPawnMove(out, n, from, to, FLAG_NONE, promotes);
+                }
+                int to2 = to + push;
+                if (!tacticalOnly && (startRank & (1L << from)) != 0
+                        && (empty & (1L << to2)) != 0 && (allowed & (1L << to2)) != 0) {
+                    out[n++] = move(from, to2, FLAG_DOUBLE_PUSH, 0);
+                }
+            }
+            long att = Attacks.PAWN[us][from];
+            for (long c = att & enemy & allowed; c != 0; c &= c - 1) {
+                int cap = Long.numberOfTrailingZeros(c);
+                n = addPawnMove(out, n, from, cap, FLAG_NONE, (promoRank & (1L << cap)) != 0);
+            }
+            if (epSquare >= 0 && (att & (1L << epSquare)) != 0) {
+                int ep = move(from, epSquare, FLAG_EN_PASSANT, 0);
+                if (isLegal(ep)) out[n++] = ep;
+            }
+        }
+
+        // Peças (cavalo cravado nunca tem destino sobre a linha do rei)
+        long targets = destinations & checkMask;
+        for (long b = pieces[KNIGHT + o] & ~pinned; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.KNIGHT[from] & targets);
+        }
+        for (long b = pieces[BISHOP + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.bishop(from, all) & targets & pinLine(pinned, ksq, from));
+        }
+        for (long b = pieces[ROOK + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.rook(from, all) & targets & pinLine(pinned, ksq, from));
+        }
+        for (long b = pieces[QUEEN + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.queen(from, all) & targets & pinLine(pinned, ksq, from));
+        }
+
+        if (checkers == 0 && !tacticalOnly) n = addCastles(out, n);
+        return n;
+    }
+
+    /** Captura (inclusive en passant) ou promoção. */
+    public boolean isTactical(int move) {
+        return mailbox[to(move)] != EMPTY || flag(move) == FLAG_EN_PASSANT || promotion(move) != 0;
+    }
+
+    /** Valores usados pela troca estática (rei alto: nunca entra numa troca como peça perdida). */
+    private static final int[] SEE_VALUE = {
+        PieceSquare.PAWN_VALUE, PieceSquare.KNIGHT_VALUE, PieceSquare.BISHOP_VALUE,
+        PieceSquare.ROOK_VALUE, PieceSquare.QUEEN_VALUE, 20000
+    };
+
+    /**
+     * Troca estática (SEE): saldo material, para o lado a jogar, da sequência de capturas na casa de
+     * destino em que cada lado sempre recaptura com a peça de menor valor e pode parar quando quiser.
+     * Peças deslizantes atrás das que já capturaram (raios X) entram na sequência.
+     */
+    public int see(int move) {
+        int from = from(move), to = to(move);
+        int[] gain = seeGain;
+        int d = 0;
+        long occ = all;
+        int captured = flag(move) == FLAG_EN_PASSANT ? PAWN : mailbox[to] == EMPTY ? EMPTY : mailbox[to] % 6;
+        if (flag(move) == FLAG_EN_PASSANT) occ ^= 1L << (side == WHITE ? to + 8 : to - 8);
+        gain[0] = captured == EMPTY ? 0 : SEE_VALUE[captured];
+        int onSquare = mailbox[from] % 6;
+        long fromBit = 1L << from;
+        long diagonal = pieces[BISHOP] | pieces[BISHOP + 6] | pieces[QUEEN] | pieces[QUEEN + 6];
+        long straight = pieces[ROOK] | pieces[ROOK + 6] | pieces[QUEEN] | pieces[QUEEN + 6];
+        long attackers = attackersTo(to, WHITE, occ) | attackersTo(to, BLACK, occ);
+        int color = side;
+
+        while (true) {
+            d++;
+            gain[d] = SEE_VALUE[onSquare] - gain[d - 1]; // se a peça que acabou de capturar for tomada
+            if (Math.max(-gain[d - 1], gain[d]) < 0) break; // nenhum dos lados quer continuar
+            occ ^= fromBit;
+            attackers = (attackers | (Attacks.bishop(to, occ) & diagonal) | (Attacks.rook(to, occ) & straight)) & occ;
+            color ^= 1;
+            long mine = attackers & occupancy[color];
+            if (mine == 0) break;
+            int type = PAWN;
+            while ((mine & pieces[type + 6 * color]) == 0) type++;
+            // O rei só recaptura se o outro lado não tiver mais nada atacando a casa
+            if (type == KING && (attackers & occupancy[color ^ 1]) != 0) break;
+            long b = mine & pieces[type + 6 * color];
+            fromBit = b & -b;
+            onSquare = type;
+            if (d == gain.length - 1) break;
+        }
+        while (--d > 0) gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+        return gain[0];
+    }
+
+    private static long pinLine(long pinned, int ksq, int from) {
+        return (pinned & (1L << from)) != 0 ? Attacks.LINE[ksq][from] : -1L;
+    }
+
+    /** Gera lances pseudo-legais (podem deixar o rei em xeque) em {@code out}; retorna a quantidade. */
+    public int generateMoves(int[] out) {
+        int us = side, them = us ^ 1, o = 6 * us;
+        long own = occupancy[us], enemy = occupancy[them], empty = ~all;
+        int n = 0;
+
+        // Peões
+        long pawns = pieces[PAWN + o];
+        int push = us == WHITE ? -8 : 8;
+        long single = us == WHITE ? (pawns >>> 8) & empty : (pawns << 8) & empty;
+        long dbl = us == WHITE ? ((single & RANK_3) >>> 8) & empty : ((single & RANK_6) << 8) & empty;
+        long promoRank = us == WHITE ? RANK_8 : RANK_1;
+        for (long b = single; b != 0; b &= b - 1) {
+            int to = Long.numberOfTrailingZeros(b);
+            n = addPawnMove(out, n, to - push, to, FLAG_NONE, (promoRank & (1L << to)) != 0);
+        }
+        for (long b = dbl; b != 0; b &= b - 1) {
+            int to = Long.numberOfTrailingZeros(b);
+            out[n++] = move(to - 2 * push, to, FLAG_DOUBLE_PUSH, 0);
+        }
+        for (long b = pawns; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long att = Attacks.PAWN[us][from];
+            for (long c = att & enemy; c != 0; c &= c - 1) {
+                int to = Long.numberOfTrailingZeros(c);
+                n = addPawnMove(out, n, from, to, FLAG_NONE, (promoRank & (1L << to)) != 0);
+            }
+            if (epSquare >= 0 && (att & (1L << epSquare)) != 0) {
+                out[n++] = move(from, epSquare, FLAG_EN_PASSANT, 0);
+            }
+        }
+
+        // Peças
+        for (long b = pieces[KNIGHT + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.KNIGHT[from] & ~own);
+        }
+        for (long b = pieces[BISHOP + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.bishop(from, all) & ~own);
+        }
+        for (long b = pieces[ROOK + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.rook(from, all) & ~own);
+        }
+        for (long b = pieces[QUEEN + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.queen(from, all) & ~own);
+        }
+        for (long b = pieces[KING + o]; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addTargets(out, n, from, Attacks.KING[from] & ~own);
+        }
+
+        return addCastles(out, n);
+    }
+
+    /** Roques: casas entre rei e torre vazias, rei fora de xeque e sem passar por casa atacada. */
+    private int addCastles(int[] out, int n) {
+        int them = side ^ 1;
+        if (side == WHITE) {
+            if ((castling & CASTLE_WK) != 0 && (all & 0x6000000000000000L) == 0
+                    && !isSquareAttacked(60, them) && !isSquareAttacked(61, them) && !isSquareAttacked(62, them)) {
+                out[n++] = move(60, 62, FLAG_CASTLE, 0);
+            }
+            if ((castling & CASTLE_WQ) != 0 && (all & 0x0E00000000000000L) == 0
+                    && !isSquareAttacked(60, them) && !isSquareAttacked(59, them) && !isSquareAttacked(58, them)) {
+                out[n++] = move(60, 58, FLAG_CASTLE, 0);
+            }
+        } else {
+            if ((castling & CASTLE_BK) != 0 && (all & 0x60L) == 0
+                    && !isSquareAttacked(4, them) && !isSquareAttacked(5, them) && !isSquareAttacked(6, them)) {
+                out[n++] = move(4, 6, FLAG_CASTLE, 0);
+            }
+            if ((castling & CASTLE_BQ) != 0 && (all & 0x0EL) == 0
+                    && !isSquareAttacked(4, them) && !isSquareAttacked(3, them) && !isSquareAttacked(2, them)) {
+                out[n++] = move(4, 2, FLAG_CASTLE, 0);
+            }
+        }
+        return n;
+    }
+
+    private static int addTargets(int[] out, int n, int from, long targets) {
+        for (long t = targets; t != 0; t &= t - 1) {
+            out[n++] = move(from, Long.numberOfTrailingZeros(t), FLAG_NONE, 0);
+        }
+        return n;
+    }
+
+    private static int addPawnMove(int[] out, int n, int from, int to, int flag, boolean promotes) {
+        if (promotes) {
+            out[n++] = move(from, to, flag, QUEEN);
+            out[n++] = move(from, to, flag, KNIGHT);
+            out[n++] = move(from, to, flag, ROOK);
+            out[n++] = move(from, to, flag, BISHOP);
+        } else {
+            out[n++] = move(from, to, flag, 0);
+        }
+        return n;
+    }
+
+    // ---------------------------------------------------------------- utilitários
+
+    private void addPiece(int sq, int piece) {
+        long b = 1L << sq;
+        pieces[piece] |= b;
+        occupancy[piece / 6] |= b;
+        all |= b;
+        mailbox[sq] = piece;
+        key ^= Zobrist.PIECE[piece][sq];
+        mgScore += PieceSquare.MG[piece][sq];
+        egScore += PieceSquare.EG[piece][sq];
+        phase += PieceSquare.PHASE[piece % 6];
+    }
+
+    private void movePiece(int from, int to) {
+        int piece = mailbox[from];
+        removePiece(from);
+        addPiece(to, piece);
+    }
+
+    private void removePiece(int sq) {
+        int piece = mailbox[sq];
+        if (piece == EMPTY) return;
+        long b = ~(1L << sq);
+        pieces[piece] &= b;
+        occupancy[piece / 6] &= b;
+        all &= b;
+        mailbox[sq] = EMPTY;
+        key ^= Zobrist.PIECE[piece][sq];
+        mgScore -= PieceSquare.MG[piece][sq];
+        egScore -= PieceSquare.EG[piece][sq];
+        phase -= PieceSquare.PHASE[piece % 6];
+    }
+
+    public static int square(Position p) {
+        return p.getRow() * 8 + p.getColumn();
+    }
+
+    /** Casa em notação algébrica ("e4") para o índice interno. */
+    public static int square(String algebraic) {
+        int c = algebraic.charAt(0) - 'a';
+        int r = 8 - (algebraic.charAt(1) - '0');
+        if (c < 0 || c > 7 || r < 0 || r > 7) throw new IllegalArgumentException("Casa inválida: " + algebraic);
+        return r * 8 + c;
+    }
+
+    public static Position position(int sq) {
+        return new Position(sq >> 3, sq & 7);
+    }
+
+    public static int typeOf(Piece p) {
+        if (p instanceof Pawn) return PAWN;
+        if (p instanceof Knight) return KNIGHT;
+        if (p instanceof Bishop) return BISHOP;
+        if (p instanceof Rook) return ROOK;
+        if (p instanceof Queen) return QUEEN;
+        return KING;
+    }
+
+    private static int castlingFromBoard(Board board) {
+        int rights = 0;
+        if (unmoved(board, 7, 4, King.class, true)) {
+            if (unmoved(board, 7, 7, Rook.class, true)) rights |= CASTLE_WK;
+            if (unmoved(board, 7, 0, Rook.class, true)) rights |= CASTLE_WQ;
+        }
+        if (unmoved(board, 0, 4, King.class, false)) {
+            if (unmoved(board, 0, 7, Rook.class, false)) rights |= CASTLE_BK;
+            if (unmoved(board, 0, 0, Rook.class, false)) rights |= CASTLE_BQ;
+        }
+        return rights;
+    }
+
+    private static boolean unmoved(Board board, int r, int c, Class<? extends Piece> kind, boolean white) {
+        Piece p = board.get(new Position(r, c));
+        return kind.isInstance(p) && p.isWhite() == white && !p.hasMoved();
+    }
+}
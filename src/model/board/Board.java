@@ -3,10 +3,14 @@ package model.board;
 
 import java.util.ArrayList;
 import java.util.List;
+import model.pieces.King;
 import model.pieces.Piece;
 
 public class Board {
     private final Piece[][] grid = new Piece[8][8];
+    /** Casa de cada rei (linha*8+coluna), mantida por set(); -1 se não houver rei. */
+    private int whiteKing = -1;
+    private int blackKing = -1;
 
     /** Verifica se a posição está dentro do tabuleiro (0..7). */
     public boolean isInside(Position p) {
@@ -17,14 +21,38 @@ public class Board {
         return isInside(p) ? grid[p.getRow()][p.getColumn()] : null;
     }
 
+    /** Como get(Position), sem alocar: null fora do tabuleiro. */
+    public Piece get(int row, int column) {
+        return row >= 0 && row < 8 && column >= 0 && column < 8 ? grid[row][column] : null;
+    }
+
     public void set(Position p, Piece piece) {
         if (!isInside(p)) return;
+        int sq = p.getRow() * 8 + p.getColumn();
+        Piece old = grid[p.getRow()][p.getColumn()];
+        // Só esquece o rei se ele ainda estiver aqui (num lance ele é posto no destino antes de sair da origem)
+        if (old instanceof King) {
+            if (old.isWhite() && whiteKing == sq) whiteKing = -1;
+            else if (!old.isWhite() && blackKing == sq) blackKing = -1;
+        }
         grid[p.getRow()][p.getColumn()] = piece;
         if (piece != null) {
             piece.setPosition(p);
+            if (piece instanceof King) trackKing(piece, sq);
         }
     }
 
+    private void trackKing(Piece king, int sq) {
+        if (king.isWhite()) whiteKing = sq;
+        else blackKing = sq;
+    }
+
+    /** Posição do rei da cor, ou null se não houver (sem varrer o tabuleiro). */
+    public Position kingPosition(boolean white) {
+        int sq = white ? whiteKing : blackKing;
+        return sq < 0 ? null : grid[sq >> 3][sq & 7].getPosition();
+    }
+
     /** Atalho usado no setup inicial. */
     public void placePiece(Piece piece, Position p) {
         set(p, piece);
@@ -52,6 +80,7 @@ public class Board {
                     Piece cp = p.copyFor(b);
                     b.grid[r][c] = cp;
                     cp.setPosition(new Position(r, c));
+                    if (cp instanceof King) b.trackKing(cp, r * 8 + c);
                 }
             }
         }
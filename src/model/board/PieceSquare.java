@@ -0,0 +1,124 @@
+package model.board;
+
+/**
+ * Material + tabelas peça-casa, em centipeões e do ponto de vista das Brancas (peças pretas entram
+ * negativas, com a tabela espelhada). O BitBoard soma as entradas a cada peça posta ou retirada,
+ * então a parte posicional da avaliação fica sempre pronta, sem varrer o tabuleiro.
+ *
+ * Há um valor de meio-jogo e um de final; a fase (0 = só reis e peões, 24 = material completo)
+ * interpola os dois.
+ */
+public final class PieceSquare {
+
+    public static final int PAWN_VALUE = 100;
+    public static final int KNIGHT_VALUE = 320;
+    public static final int BISHOP_VALUE = 330;
+    public static final int ROOK_VALUE = 500;
+    public static final int QUEEN_VALUE = 900;
+
+    /** Fase total com todas as peças no tabuleiro. */
+    public static final int MAX_PHASE = 24;
+    /** Contribuição de cada tipo (PAWN..KING) para a fase. */
+    public static final int[] PHASE = {0, 1, 1, 2, 4, 0};
+
+    /** MG[tipo + 6 * cor][casa] e EG[...]: material + posição, com sinal (pretas negativas). */
+    public static final int[][] MG = new int[12][64];
+    public static final int[][] EG = new int[12][64];
+
+    // Tabelas do lado das Brancas, casa 0 = a8 (mesma numeração do BitBoard)
+    private static final int[] PAWN_TABLE = {
+         0,  0,   0,   0,   0,   0,  0,  0,
+        50, 50,  50,  50,  50,  50, 50, 50,
+        10, 10,  20,  30,  30,  20, 10, 10,
+         5,  5,  10,  25,  25,  10,  5,  5,
+         0,  0,   0,  20,  20,   0,  0,  0,
+         5, -5, -10,   0,   0, -10, -5,  5,
+         5, 10,  10, -20, -20,  10, 10,  5,
+         0,  0,   0,   0,   0,   0,  0,  0
+    };
+    private static final int[] KNIGHT_TABLE = {
+        -50, -40, -30, -30, -30, -30, -40, -50,
+        -40, -20,   0,   0,   0,   0, -20, -40,
+        -30,   0,  10,  15,  15,  10,   0, -30,
+        -30,   5,  15,  20,  20,  15,   5, -30,
+        -30,   0,  15,  20,  20,  15,   0, -30,
+        -30,   5,  10,  15,  15,  10,   5, -30,
+        -40, -20,   0,   5,   5,   0, -20, -40,
+        -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] BISHOP_TABLE = {
+        -20, -10, -10, -10, -10, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,  10,  10,   5,   0, -10,
+        -10,   5,   5,  10,  10,   5,   5, -10,
+        -10,   0,  10,  10,  10,  10,   0, -10,
+        -10,  10,  10,  10,  10,  10,  10, -10,
+        -10,   5,   0,   0,   0,   0,   5, -10,
+        -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] ROOK_TABLE = {
+         0,  0,  0,  0,  0,  0,  0,  0,
+         5, 10, 10, 10, 10, 10, 10,  5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+         0,  0,  0,  5,  5,  0,  0,  0
+    };
+    private static final int[] QUEEN_TABLE = {
+        -20, -10, -10, -5, -5, -10, -10, -20,
+        -10,   0,   0,  0,  0,   0,   0, -10,
+        -10,   0,   5,  5,  5,   5,   0, -10,
+         -5,   0,   5,  5,  5,   5,   0,  -5,
+          0,   0,   5,  5,  5,   5,   0,  -5,
+        -10,   5,   5,  5,  5,   5,   0, -10,
+        -10,   0,   5,  0,  0,   0,   0, -10,
+        -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    /** Rei no meio-jogo: abrigado atrás dos peões. */
+    private static final int[] KING_MG_TABLE = {
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -20, -30, -30, -40, -40, -30, -30, -20,
+        -10, -20, -20, -20, -20, -20, -20, -10,
+         20,  20,   0,   0,   0,   0,  20,  20,
+         20,  30,  10,   0,   0,  10,  30,  20
+    };
+    /** Rei no final: vai para o centro. */
+    private static final int[] KING_EG_TABLE = {
+        -50, -40, -30, -20, -20, -30, -40, -50,
+        -30, -20, -10,   0,   0, -10, -20, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -30,   0,   0,   0,   0, -30, -30,
+        -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    static {
+        int[] value = {PAWN_VALUE, KNIGHT_VALUE, BISHOP_VALUE, ROOK_VALUE, QUEEN_VALUE, 0};
+        int[][] mg = {PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_MG_TABLE};
+        int[][] eg = {PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_EG_TABLE};
+        for (int type = 0; type < 6; type++) {
+            for (int sq = 0; sq < 64; sq++) {
+                // Pretas: mesma tabela espelhada verticalmente (sq ^ 56 troca a linha 0 pela 7)
+                MG[type][sq] = value[type] + mg[type][sq];
+                EG[type][sq] = value[type] + eg[type][sq];
+                MG[type + 6][sq] = -(value[type] + mg[type][sq ^ 56]);
+                EG[type + 6][sq] = -(value[type] + eg[type][sq ^ 56]);
+            }
+        }
+    }
+
+    private PieceSquare() { /* utilitário */ }
+
+    /** Interpola meio-jogo e final pela fase (limitada a MAX_PHASE, por causa de promoções). */
+    public static int blend(int mg, int eg, int phase) {
+        int p = Math.min(phase, MAX_PHASE);
+        return (mg * p + eg * (MAX_PHASE - p)) / MAX_PHASE;
+    }
+}
@@ -0,0 +1,30 @@
+package model.board;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chaves aleatórias para o hash Zobrist da posição.
+ * O hash é o XOR das chaves de cada (peça, casa), dos direitos de roque,
+ * da coluna de en passant e do lado a jogar; o BitBoard o atualiza a cada lance.
+ */
+public final class Zobrist {
+
+    /** PIECE[tipo + 6 * cor][casa] */
+    public static final long[][] PIECE = new long[12][64];
+    /** CASTLING[máscara de direitos 0..15] */
+    public static final long[] CASTLING = new long[16];
+    public static final long[] EP_FILE = new long[8];
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom rnd = new SplittableRandom(0x5EEDC0FFEEL); // semente fixa: hashes reproduzíveis
+        for (long[] table : PIECE) {
+            for (int sq = 0; sq < 64; sq++) table[sq] = rnd.nextLong();
+        }
+        for (int i = 0; i < 16; i++) CASTLING[i] = rnd.nextLong();
+        for (int i = 0; i < 8; i++) EP_FILE[i] = rnd.nextLong();
+        BLACK_TO_MOVE = rnd.nextLong();
+    }
+
+    private Zobrist() { /* utilitário */ }
+}
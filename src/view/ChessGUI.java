@@ -3,9 +3,13 @@ package view;
 
 import controller.AIPlayer;
 import controller.Game;
+import controller.SearchMetrics;
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import javax.swing.*;
@@ -26,6 +30,7 @@ public class ChessGUI extends JFrame {
     private final JTextArea history;
     private final JScrollPane historyScroll;
     private final JButton resetButton;
+    private final JButton moveNowButton;
     private final JCheckBox trainingMode;
     private final JComboBox<String> aiDifficultySelector;
 
@@ -38,11 +43,20 @@ public class ChessGUI extends JFrame {
 
     private boolean gameOverMessageShown = false;
     private boolean aiMessageShown = false;
+    /** IA buscando em segundo plano; o tabuleiro fica bloqueado para cliques. */
+    private boolean aiThinking = false;
+    /** Conta os pedidos de lance da IA (e os reinícios): o callback de um pedido antigo é ignorado. */
+    private int aiRequest = 0;
 
     public ChessGUI() {
         super("ChessGame");
         this.game = new Game();
         this.ai = new AIPlayer(game);
+        // A IA roda fora da thread de eventos: a GUI pede o lance depois de cada jogada das Brancas
+        game.setAutoAIMove(false);
+        game.setAIPondering(true);
+        loadOpeningBook();
+        game.setAISearchListener(info -> SwingUtilities.invokeLater(() -> showProgress(info)));
 
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         setLayout(new BorderLayout(8, 8));
@@ -72,9 +86,17 @@ public class ChessGUI extends JFrame {
         status = new JLabel("Vez: Brancas");
         status.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
 
+        moveNowButton = new JButton("Mover agora");
+        moveNowButton.setToolTipText("Interrompe a busca da IA e joga o melhor lance encontrado até aqui");
+        moveNowButton.setEnabled(false);
+        moveNowButton.addActionListener(e -> game.stopAIThinking());
+
         resetButton = new JButton("Reiniciar Jogo");
         resetButton.addActionListener(e -> {
             game.resetGame();
+            aiRequest++;
+            aiThinking = false;
+            moveNowButton.setEnabled(false);
             selected = null;
             legalForSelected.clear();
             gameOverMessageShown = false;
@@ -109,6 +131,7 @@ public class ChessGUI extends JFrame {
         rightBottom.add(new JLabel("Dificuldade IA:"));
         rightBottom.add(aiDifficultySelector);
         rightBottom.add(trainingMode);
+        rightBottom.add(moveNowButton);
         rightBottom.add(resetButton);
         bottomPanel.add(rightBottom, BorderLayout.EAST);
 
@@ -173,6 +196,9 @@ public class ChessGUI extends JFrame {
                 game.move(selected, clicked, promo);
                 selected = null;
                 legalForSelected.clear();
+                if (!game.isGameOver() && !game.whiteToMove()) {
+                    startAIMove();
+                }
             } else {
                 if (p != null && p.isWhite() == game.whiteToMove()) {
                     List<Position> moves = game.legalMovesFrom(clicked);
@@ -192,6 +218,45 @@ public class ChessGUI extends JFrame {
         refresh();
     }
 
+    /** Usa resources/book.bin se existir (gerado por controller.OpeningBook a partir de resources/openings.txt). */
+    private void loadOpeningBook() {
+        Path book = Path.of("resources", "book.bin");
+        if (!Files.exists(book)) return;
+        try {
+            game.loadOpeningBook(book);
+        } catch (IOException e) {
+            System.out.println("Livro de aberturas não carregado: " + e.getMessage());
+        }
+    }
+
+    /** Dispara a busca da IA em segundo plano; o lance é aplicado na thread de eventos. */
+    private void startAIMove() {
+        int request = ++aiRequest;
+        aiThinking = true;
+        moveNowButton.setEnabled(true);
+        status.setText("IA pensando...");
+        game.requestAIMove(SwingUtilities::invokeLater).whenComplete((move, error) -> {
+            // Em caso de erro na busca o callback vem da thread da IA: volta para a thread de eventos
+            SwingUtilities.invokeLater(() -> {
+                // Busca de antes de um reinício: termina com null depois que outra já pode ter começado
+                if (request != aiRequest) return;
+                aiThinking = false;
+                moveNowButton.setEnabled(false);
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Falha na busca da IA: " + error.getMessage(),
+                            "Erro", JOptionPane.ERROR_MESSAGE);
+                }
+                refresh();
+            });
+        });
+    }
+
+    private void showProgress(AIPlayer.SearchInfo info) {
+        if (!aiThinking) return;
+        status.setText(String.format("IA pensando... profundidade %d | valor %+.2f | melhor %s | %,d nós | %.1f s",
+                info.depth(), info.score() / 100.0, info.bestMove(), info.nodes(), info.millis() / 1000.0));
+    }
+
     private Character askPromotion() {
         String[] opts = {"Rainha", "Torre", "Bispo", "Cavalo"};
         int ch = JOptionPane.showOptionDialog(
@@ -254,7 +319,8 @@ public class ChessGUI extends JFrame {
             }
         }
 
-        if (game.inCheck(game.whiteToMove())) {
+        Game.Status situation = game.status();
+        if (situation.inCheck()) {
             Position kingPos = game.findKingPosition(game.whiteToMove());
             if (kingPos != null) {
                 squares[kingPos.getRow()][kingPos.getColumn()].setBorder(BORDER_CHECK);
@@ -270,11 +336,13 @@ public class ChessGUI extends JFrame {
             }
         } else {
             String side = game.whiteToMove() ? "Brancas" : "Pretas";
-            String chk = game.inCheck(game.whiteToMove()) ? " — Xeque!" : "";
+            String chk = situation.inCheck() ? " — Xeque!" : "";
             statusText = "Vez: " + side + chk;
 
             if (game.whiteToMove()) {
                 aiMessageShown = false;
+            } else if (aiThinking) {
+                statusText = status.getText(); // mantém o progresso da busca
             } else {
                 if (!aiMessageShown) {
                     JOptionPane.showMessageDialog(this, "É a vez das Pretas (IA)!", "Aguarde", JOptionPane.INFORMATION_MESSAGE);
@@ -316,6 +384,7 @@ public class ChessGUI extends JFrame {
     }
 
     public static void main(String[] args) {
+        SearchMetrics.registerMBean();
         SwingUtilities.invokeLater(ChessGUI::new);
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicReference;
+import model.board.BitBoard;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** A divisão dos lances da raiz no ForkJoinPool tem de achar o mesmo lance e valor da busca sequencial. */
+class RootSplitTest {
+
+    private static final int DEPTH = 5;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "8/8/1p3k2/p1p5/P1P5/1P3K2/8/8 w - - 0 1",
+    })
+    void splitMatchesSequential(String fen) {
+        AIPlayer.SearchInfo sequential = search(fen, 1);
+        AIPlayer.SearchInfo split = search(fen, 4);
+        assertEquals(sequential.bestMove(), split.bestMove(), "melhor lance");
+        assertEquals(sequential.score(), split.score(), "valor");
+    }
+
+    /** Busca a profundidade fixa com um motor novo (tabela vazia) e devolve a última iteração. */
+    private static AIPlayer.SearchInfo search(String fen, int threads) {
+        AIPlayer ai = new AIPlayer();
+        ai.setParallelism(threads);
+        ai.setSearchMode(AIPlayer.SearchMode.ROOT_SPLIT);
+        AtomicReference<AIPlayer.SearchInfo> last = new AtomicReference<>();
+        ai.setSearchListener(last::set);
+        try {
+            ai.searchPosition(BitBoard.fromFen(fen), DEPTH, 0, 0);
+        } finally {
+            ai.shutdown();
+        }
+        assertEquals(DEPTH, last.get().depth());
+        return last.get();
+    }
+}